@@ -0,0 +1,18 @@
+#!/bin/bash
+# Benchmark script for Stock Manager
+# Compiles the application together with src/bench and runs the benchmark suite
+# Usage: ./bench.sh [-wi n] [-i n] [-r millis] [-p name=v1,v2] [-rf file.json] [regex]
+# Example: ./bench.sh -p size=10,1000 -rf before.json 'StockService'
+
+echo "Compiling benchmarks..."
+
+mkdir -p bench-classes
+javac -encoding UTF-8 -d bench-classes src/main/*.java src/model/*.java src/ui/*.java src/service/*.java src/bench/*.java
+
+if [ $? -ne 0 ]; then
+    echo "❌ Compilation failed!"
+    exit 1
+fi
+
+echo "📊 Running benchmarks (results go to bench-results.json unless -rf is given)..."
+java -Xmx4g -Djava.awt.headless=true -cp bench-classes bench.BenchmarkRunner "$@"
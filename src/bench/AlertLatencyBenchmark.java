@@ -0,0 +1,129 @@
+package bench;
+
+import model.Recommendation;
+import model.Stock;
+import service.AlertEngine;
+import service.StockService;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Threshold alert latency under a paced tick stream
+ * Streams random-walk ticks oscillating around every stock's thresholds at
+ * the target rate from one thread, and measures the time from detecting a
+ * crossing on the tick thread to its listener being called. The expected
+ * crossings are counted independently from the ticks, so every alert has
+ * to be either delivered or reported dropped. For contrast, also times
+ * one poll of the whole portfolio, which is what finding crossings would
+ * cost without per-stock state.
+ * Usage: AlertLatencyBenchmark [stocks] [seconds] [ticksPerSecond] [queueCapacity]
+ */
+public class AlertLatencyBenchmark {
+    private static final double BUY = 95;
+    private static final double SELL = 105;
+    
+    public static void main(String[] args) throws Exception {
+        int stockCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int rate = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int capacity = args.length > 3 ? Integer.parseInt(args[3]) : AlertEngine.DEFAULT_QUEUE_CAPACITY;
+        
+        StockService service = new StockService();
+        Stock[] stocks = new Stock[stockCount];
+        double[] navs = new double[stockCount];
+        for (int i = 0; i < stockCount; i++) {
+            stocks[i] = service.addStock("Alert " + i, "ALR" + i, false);
+            stocks[i].setCurrentNAV(100, 0);
+            stocks[i].setBuyThreshold(BUY);
+            stocks[i].setSellThreshold(SELL);
+            navs[i] = 100;
+        }
+        
+        long[] latencies = new long[1 << 20];
+        int[] recorded = {0};
+        AlertEngine.Subscription subscription = service.getAlertEngine().subscribe(alert -> {
+            long latency = System.nanoTime() - alert.getDetectedNanos();
+            if (recorded[0] < latencies.length) {
+                latencies[recorded[0]++] = latency;
+            }
+        }, capacity);
+        
+        // Ticks are applied in 1 ms slots, waiting out the rest of each slot
+        SplittableRandom random = new SplittableRandom(3);
+        int perSlot = Math.max(1, rate / 1000);
+        long slots = (long) seconds * 1000;
+        long expected = 0;
+        long ticks = 0;
+        int cursor = 0;
+        long start = System.nanoTime();
+        for (long slot = 0; slot < slots; slot++) {
+            for (int i = 0; i < perSlot; i++) {
+                double before = navs[cursor];
+                double nav = before + (random.nextDouble() - 0.5) * 5;
+                nav = nav < 80 ? 160 - nav : nav > 120 ? 240 - nav : nav; // Reflect to stay near the thresholds
+                navs[cursor] = nav;
+                Recommendation was = Recommendation.of(before, BUY, SELL);
+                Recommendation now = Recommendation.of(nav, BUY, SELL);
+                if (now != was) {
+                    expected += was != Recommendation.HOLD && now != Recommendation.HOLD ? 2 : 1; // One per threshold
+                }
+                stocks[cursor].setCurrentNAV(nav, slot);
+                cursor = cursor + 1 == stockCount ? 0 : cursor + 1;
+                ticks++;
+            }
+            long due = start + TimeUnit.MILLISECONDS.toNanos(slot + 1);
+            for (long now = System.nanoTime(); now < due; now = System.nanoTime()) {
+                LockSupport.parkNanos(due - now); // Leaves the core to delivery, even on a single-core box
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscription.getDeliveredCount() + subscription.getDroppedCount() < expected
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        subscription.close();
+        
+        long published = service.getAlertEngine().getPublishedCount();
+        long delivered = subscription.getDeliveredCount();
+        long dropped = subscription.getDroppedCount();
+        System.out.printf(Locale.ROOT, "%,d ticks over %,d stocks in %.2f s: %,.0f ticks/s (target %,d)%n",
+                          ticks, stockCount, elapsed / 1e9, ticks * 1e9 / elapsed, rate);
+        System.out.printf(Locale.ROOT, "crossings: expected %,d, published %,d, delivered %,d, dropped %,d (queue %,d)%n",
+                          expected, published, delivered, dropped, capacity);
+        
+        long[] sorted = Arrays.copyOf(latencies, recorded[0]);
+        Arrays.sort(sorted);
+        if (sorted.length > 0) {
+            System.out.printf(Locale.ROOT, "alert latency: p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                              percentile(sorted, 0.50) / 1e3, percentile(sorted, 0.99) / 1e3,
+                              percentile(sorted, 0.999) / 1e3, sorted[sorted.length - 1] / 1e3);
+        }
+        
+        int rounds = 100;
+        long sink = 0;
+        long pollStart = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            List<Stock> all = service.getAllStocks();
+            for (Stock stock : all) {
+                sink += stock.getRecommendationState().ordinal();
+            }
+        }
+        System.out.printf(Locale.ROOT, "one full-portfolio poll: %.1f us (%d)%n",
+                          (System.nanoTime() - pollStart) / 1e3 / rounds, sink);
+        
+        if (published != expected || delivered + dropped != expected) {
+            System.out.println("MISMATCH");
+            System.exit(1);
+        }
+    }
+    
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+    }
+}
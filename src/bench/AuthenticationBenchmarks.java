@@ -0,0 +1,45 @@
+package bench;
+
+import model.User;
+import service.AuthenticationService;
+
+/**
+ * AuthenticationService.authenticate against user bases of growing size
+ * PBKDF2 cost is fixed per run by -Dbench.auth.iterations (default 1000),
+ * so the numbers show how lookup scales rather than the hash alone.
+ */
+public final class AuthenticationBenchmarks {
+    private static final String[] USERS = {"10", "1000", "100000", "1000000"};
+    /** Password of every account created by seededUsers */
+    static final String PASSWORD = "correct horse battery staple";
+    
+    private AuthenticationBenchmarks() {
+    }
+    
+    static void register(BenchmarkRunner runner) {
+        runner.add("AuthenticationService.authenticate", "users", USERS, param -> {
+            int users = Integer.parseInt(param);
+            AuthenticationService service = seededUsers(users, Integer.getInteger("bench.auth.iterations", 1000));
+            int[] cursor = {0};
+            return () -> service.authenticate("user" + (cursor[0] = (cursor[0] + 7919) % users), PASSWORD);
+        });
+    }
+    
+    /**
+     * Service with accounts user0 .. user(users - 1), all with PASSWORD
+     * The password is hashed once and the hash shared; hashing a million
+     * passwords would dwarf any run.
+     */
+    static AuthenticationService seededUsers(int users, int iterations) {
+        AuthenticationService service = new AuthenticationService(iterations);
+        service.register("seed", PASSWORD);
+        User seed = null;
+        for (User user : service.getAllUsers()) {
+            if (user.getUsername().equals("seed")) seed = user;
+        }
+        for (int i = 0; i < users; i++) {
+            service.addUser(new User("user" + i, seed.getSalt(), seed.getPasswordHash(), seed.getIterations()));
+        }
+        return service;
+    }
+}
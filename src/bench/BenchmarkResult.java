@@ -0,0 +1,82 @@
+package bench;
+
+import java.util.Locale;
+
+/**
+ * Average time per operation over the measurement iterations of one benchmark
+ */
+public class BenchmarkResult {
+    private final String benchmark;
+    private final String paramName;
+    private final String paramValue;
+    private final double[] nanosPerOp;
+    
+    public BenchmarkResult(String benchmark, String paramName, String paramValue, double[] nanosPerOp) {
+        this.benchmark = benchmark;
+        this.paramName = paramName;
+        this.paramValue = paramValue;
+        this.nanosPerOp = nanosPerOp.clone();
+    }
+    
+    public String getBenchmark() { return benchmark; }
+    public String getParamName() { return paramName; }
+    public String getParamValue() { return paramValue; }
+    
+    public double getScore() {
+        double sum = 0;
+        for (double value : nanosPerOp) sum += value;
+        return sum / nanosPerOp.length;
+    }
+    
+    /**
+     * Half-width of the 99.9% confidence interval (normal approximation)
+     */
+    public double getScoreError() {
+        int n = nanosPerOp.length;
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double mean = getScore();
+        double squares = 0;
+        for (double value : nanosPerOp) squares += (value - mean) * (value - mean);
+        return 3.291 * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+    }
+    
+    /**
+     * JSON object in the layout JMH writes with -rf json, so the same tools can compare runs
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("  {\n");
+        json.append("    \"benchmark\" : \"").append(benchmark).append("\",\n");
+        json.append("    \"mode\" : \"avgt\",\n");
+        json.append("    \"threads\" : 1,\n");
+        json.append("    \"measurementIterations\" : ").append(nanosPerOp.length).append(",\n");
+        if (paramName != null) {
+            json.append("    \"params\" : { \"").append(paramName).append("\" : \"").append(paramValue).append("\" },\n");
+        }
+        json.append("    \"primaryMetric\" : {\n");
+        json.append("      \"score\" : ").append(number(getScore())).append(",\n");
+        json.append("      \"scoreError\" : ").append(number(getScoreError())).append(",\n");
+        json.append("      \"scoreUnit\" : \"ns/op\",\n");
+        json.append("      \"rawData\" : [ [");
+        for (int i = 0; i < nanosPerOp.length; i++) {
+            json.append(i == 0 ? " " : ", ").append(number(nanosPerOp[i]));
+        }
+        json.append(" ] ]\n");
+        json.append("    }\n");
+        json.append("  }");
+        return json.toString();
+    }
+    
+    private static String number(double value) {
+        return Double.isNaN(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.3f", value);
+    }
+    
+    @Override
+    public String toString() {
+        String param = paramName == null ? "" : paramValue;
+        return String.format(Locale.ROOT, "%-40s %10s %16.1f +- %10.1f ns/op",
+                             benchmark, param, getScore(), getScoreError());
+    }
+}
@@ -0,0 +1,155 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal JMH-style benchmark runner
+ * Each benchmark is run once per parameter value: the fixture builds the
+ * state outside the timed region, then a number of warmup iterations are
+ * discarded and the measurement iterations report average ns/op. Results
+ * are printed and written as JMH-compatible JSON.
+ *
+ * Usage: BenchmarkRunner [-wi n] [-i n] [-r millis] [-p name=v1,v2] [-rf file.json] [regex]
+ */
+public class BenchmarkRunner {
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, String[]> paramOverrides = new HashMap<>();
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long iterationMillis = 1_000;
+    private Pattern filter = Pattern.compile(".*");
+    private Path resultFile = Paths.get("bench-results.json");
+    
+    /**
+     * Register a benchmark run once per value of the named parameter
+     * (paramName null for none)
+     */
+    public void add(String name, String paramName, String[] defaultValues, Fixture fixture) {
+        entries.add(new Entry(name, paramName, defaultValues, fixture));
+    }
+    
+    public void add(String name, Fixture fixture) {
+        add(name, null, new String[]{""}, fixture);
+    }
+    
+    public List<BenchmarkResult> run() throws Exception {
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!filter.matcher(entry.name).find()) {
+                continue;
+            }
+            String[] values = entry.paramName != null && paramOverrides.containsKey(entry.paramName)
+                    ? paramOverrides.get(entry.paramName) : entry.defaultValues;
+            for (String value : values) {
+                BenchmarkResult result = measure(entry, value);
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        writeJson(results);
+        return results;
+    }
+    
+    private BenchmarkResult measure(Entry entry, String param) throws Exception {
+        Operation operation = entry.fixture.setUp(param);
+        try {
+            long iterationNanos = iterationMillis * 1_000_000L;
+            for (int i = 0; i < warmupIterations; i++) {
+                runIteration(operation, iterationNanos);
+            }
+            double[] scores = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                scores[i] = runIteration(operation, iterationNanos);
+            }
+            return new BenchmarkResult(entry.name, entry.paramName, param, scores);
+        } finally {
+            if (operation instanceof AutoCloseable) {
+                ((AutoCloseable) operation).close();
+            }
+        }
+    }
+    
+    /**
+     * Call the operation in growing batches until the iteration time is up;
+     * returns ns/op. Slow operations still run at least once.
+     */
+    private static double runIteration(Operation operation, long iterationNanos) throws Exception {
+        operation.beforeIteration();
+        long ops = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        long now;
+        do {
+            for (int k = 0; k < batch; k++) {
+                Blackhole.consume(operation.run());
+            }
+            ops += batch;
+            now = System.nanoTime();
+            if (batch < 4096 && now - start < iterationNanos / 16) {
+                batch <<= 1; // Keep the clock reads out of fast loops
+            }
+        } while (now - start < iterationNanos);
+        return (double) (now - start) / ops;
+    }
+    
+    private void writeJson(List<BenchmarkResult> results) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            json.append(results.get(i).toJson()).append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        Files.write(resultFile, json.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+    
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi": warmupIterations = Integer.parseInt(args[++i]); break;
+                case "-i": measurementIterations = Integer.parseInt(args[++i]); break;
+                case "-r": iterationMillis = Long.parseLong(args[++i]); break;
+                case "-rf": resultFile = Paths.get(args[++i]); break;
+                case "-p": {
+                    String[] pair = args[++i].split("=", 2);
+                    paramOverrides.put(pair[0], pair[1].split(","));
+                    break;
+                }
+                default: filter = Pattern.compile(args[i]);
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parseArgs(args);
+        StockServiceBenchmarks.register(runner);
+        PredictionBenchmarks.register(runner);
+        AuthenticationBenchmarks.register(runner);
+        ChartBenchmarks.register(runner);
+        runner.run();
+    }
+    
+    private static final class Entry {
+        final String name;
+        final String paramName;
+        final String[] defaultValues;
+        final Fixture fixture;
+        
+        Entry(String name, String paramName, String[] defaultValues, Fixture fixture) {
+            this.name = name;
+            this.paramName = paramName;
+            this.defaultValues = defaultValues;
+            this.fixture = fixture;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package bench;
+
+/**
+ * Sink for benchmark results so the JIT cannot drop the work that produced them
+ */
+public final class Blackhole {
+    private static volatile int sink;
+    
+    private Blackhole() {
+    }
+    
+    public static void consume(Object value) {
+        if (value != null) {
+            sink ^= System.identityHashCode(value);
+        }
+    }
+    
+    public static void consume(long value) {
+        sink ^= (int) (value ^ (value >>> 32));
+    }
+    
+    public static void consume(double value) {
+        consume(Double.doubleToRawLongBits(value));
+    }
+}
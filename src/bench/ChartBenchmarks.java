@@ -0,0 +1,134 @@
+package bench;
+
+import model.NAVRange;
+import model.NAVSeries;
+import model.Resolution;
+import model.Stock;
+import ui.GraphFrame;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+
+/**
+ * Headless NAV chart rendering into a BufferedImage at growing history lengths
+ * cold: a fresh panel per call, so the off-screen frame and path are rebuilt
+ * cached: repaint of an unchanged stock, a blit of the cached frame
+ * append: one new tick per call, the live-streaming case
+ * append.bars: the same, plotting hourly bars instead of raw ticks
+ * pan: a viewport zoomed to about 2,000 ticks dragged back and forth
+ * autoscale.index / autoscale.scan: min/max of a random window through the
+ * range index versus a scan of the window
+ */
+public final class ChartBenchmarks {
+    private static final String[] TICKS = {"1000", "100000", "1000000", "5000000"};
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 550;
+    
+    private ChartBenchmarks() {
+    }
+    
+    static void register(BenchmarkRunner runner) {
+        runner.add("GraphPanel.paint.cold", "ticks", TICKS, param -> {
+            Stock stock = stockWithHistory(Integer.parseInt(param));
+            BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            return () -> paint(new GraphFrame.GraphPanel(stock), target);
+        });
+        
+        runner.add("GraphPanel.paint.cached", "ticks", TICKS, param -> {
+            Stock stock = stockWithHistory(Integer.parseInt(param));
+            BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            GraphFrame.GraphPanel panel = new GraphFrame.GraphPanel(stock);
+            return () -> paint(panel, target);
+        });
+        
+        runner.add("GraphPanel.paint.append", "ticks", TICKS, param -> {
+            Stock stock = stockWithHistory(Integer.parseInt(param));
+            BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            GraphFrame.GraphPanel panel = new GraphFrame.GraphPanel(stock);
+            SplittableRandom random = new SplittableRandom(42);
+            return () -> {
+                stock.setCurrentNAV(stock.getCurrentNAV() * (0.99 + random.nextDouble() * 0.02));
+                return paint(panel, target);
+            };
+        });
+        
+        runner.add("GraphPanel.paint.append.bars", "ticks", TICKS, param -> {
+            Stock stock = stockWithHistory(Integer.parseInt(param));
+            BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            GraphFrame.GraphPanel panel = new GraphFrame.GraphPanel(stock);
+            panel.setResolution(Resolution.HOUR);
+            SplittableRandom random = new SplittableRandom(42);
+            return () -> {
+                stock.setCurrentNAV(stock.getCurrentNAV() * (0.99 + random.nextDouble() * 0.02));
+                return paint(panel, target);
+            };
+        });
+        
+        runner.add("GraphPanel.paint.pan", "ticks", TICKS, param -> {
+            int ticks = Integer.parseInt(param);
+            Stock stock = stockWithHistory(ticks);
+            BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+            GraphFrame.GraphPanel panel = new GraphFrame.GraphPanel(stock);
+            paint(panel, target);
+            panel.zoom(Math.min(1, 2000.0 / ticks), 0.5);
+            paint(panel, target);
+            int[] step = {-100};
+            return () -> {
+                panel.pan(step[0]);
+                step[0] = -step[0];
+                return paint(panel, target);
+            };
+        });
+        
+        runner.add("NAVSeries.autoscale.index", "ticks", TICKS, param -> {
+            NAVSeries history = stockWithHistory(Integer.parseInt(param)).getHistory();
+            SplittableRandom random = new SplittableRandom(11);
+            return () -> {
+                int from = random.nextInt(history.size());
+                NAVRange range = history.minMax(from, random.nextInt(from, history.size()) + 1);
+                return range.getSpread();
+            };
+        });
+        
+        runner.add("NAVSeries.autoscale.scan", "ticks", TICKS, param -> {
+            NAVSeries history = stockWithHistory(Integer.parseInt(param)).getHistory();
+            SplittableRandom random = new SplittableRandom(11);
+            return () -> {
+                int from = random.nextInt(history.size());
+                int to = random.nextInt(from, history.size()) + 1;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    min = Math.min(min, history.getNav(i));
+                    max = Math.max(max, history.getNav(i));
+                }
+                return max - min;
+            };
+        });
+    }
+    
+    private static BufferedImage paint(GraphFrame.GraphPanel panel, BufferedImage target) {
+        panel.setSize(WIDTH, HEIGHT);
+        Graphics2D g = target.createGraphics();
+        try {
+            panel.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+    
+    static Stock stockWithHistory(int ticks) {
+        Stock stock = new Stock("Bench", "BENCH");
+        SplittableRandom random = new SplittableRandom(7);
+        double nav = 1000;
+        long timestamp = System.currentTimeMillis() - ticks * 1000L;
+        for (int i = 0; i < ticks; i++) {
+            nav *= 0.99 + random.nextDouble() * 0.02;
+            stock.setCurrentNAV(nav, timestamp + i * 1000L);
+        }
+        stock.setBuyThreshold(900);
+        stock.setSellThreshold(1100);
+        return stock;
+    }
+}
@@ -0,0 +1,214 @@
+package bench;
+
+import model.Stock;
+import service.GeminiAIService;
+import service.StockService;
+import ui.EdtLatencyProbe;
+import ui.StockTableModel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * EDT responsiveness while the dashboard refreshes and predicts a large portfolio
+ * Runs a NAV refresh and an AI prediction pass over every stock the way
+ * MainFrame does: the work happens in a SwingWorker and the updated stocks
+ * come back to the EDT in coalesced batches for StockTableModel.stocksUpdated.
+ * Repaints are posted as separate EDT events and merged while one is pending,
+ * as the RepaintManager does. The check fails if any EDT event takes over
+ * 16 ms of CPU time, or, on a machine with more than one CPU, if the
+ * EdtLatencyProbe running throughout sees a stall over 16 ms. The same
+ * prediction pass done inside one EDT event is run last for contrast.
+ * Usage: EdtLatencyCheck [stocks] [probePeriodMillis]
+ */
+public class EdtLatencyCheck {
+    private static final int PROGRESS_BATCH = 256;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    
+    public static void main(String[] args) throws Exception {
+        int stockCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long probePeriod = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        
+        StockService service = new StockService();
+        for (int i = 0; i < stockCount; i++) {
+            service.addStock("Instrument " + i, "SYM" + i, false).setCurrentNAV(100 + i % 1000);
+        }
+        GeminiAIService aiService = new GeminiAIService();
+        Dashboard dashboard = new Dashboard(service);
+        List<Stock> stocks = service.getAllStocks();
+        
+        EdtLatencyProbe probe = new EdtLatencyProbe();
+        probe.start(probePeriod);
+        // On one CPU the worker and the EDT take turns in scheduler slices, so
+        // probe stalls there measure the machine rather than the dashboard
+        boolean checkProbe = Runtime.getRuntime().availableProcessors() > 1;
+        long failures = 0;
+        
+        for (int i = 0; i < 3; i++) {
+            run("warm-up", probe, dashboard, new BatchWorker(stocks, dashboard) {
+                @Override
+                void apply(Stock stock) {
+                    stock.setCurrentNAV(service.generateRandomNAV());
+                }
+            }, false);
+        }
+        failures += run("refresh worker", probe, dashboard, new BatchWorker(stocks, dashboard) {
+            @Override
+            void apply(Stock stock) {
+                stock.setCurrentNAV(service.generateRandomNAV());
+            }
+        }, checkProbe);
+        failures += run("prediction worker", probe, dashboard, new BatchWorker(stocks, dashboard) {
+            @Override
+            void apply(Stock stock) {
+                aiService.predictNAV(stock);
+            }
+        }, checkProbe);
+        
+        // What the button handlers used to do: the whole pass inside one EDT event
+        probe.reset();
+        long begin = System.nanoTime();
+        long[] cpu = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            long start = THREADS.getCurrentThreadCpuTime();
+            for (Stock stock : stocks) {
+                aiService.predictNAV(stock);
+            }
+            dashboard.model.stocksUpdated(stocks);
+            cpu[0] = THREADS.getCurrentThreadCpuTime() - start;
+        });
+        Thread.sleep(50);
+        System.out.printf(Locale.ROOT, "%-18s %8.1f ms, one EDT event of %.1f ms CPU, %s (for contrast, not checked)%n",
+                          "prediction on EDT", (System.nanoTime() - begin) / 1e6, cpu[0] / 1e6, probe);
+        probe.stop();
+        
+        System.out.println("failures " + failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static long run(String label, EdtLatencyProbe probe, Dashboard dashboard, BatchWorker worker,
+                            boolean checkProbe) throws Exception {
+        SwingUtilities.invokeAndWait(dashboard::reset);
+        probe.reset();
+        long begin = System.nanoTime();
+        worker.execute();
+        int done = worker.get();
+        // process() runs off a coalescing timer, so wait for the last batch and its repaint
+        while (worker.processed < done || dashboard.paintPending) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(20);
+        double longest = dashboard.longestEventNanos / 1e6;
+        System.out.printf(Locale.ROOT, "%-18s %8.1f ms, %,d stocks in %,d batches and %,d repaints, "
+                          + "longest EDT event %.1f ms CPU, %s%n", label, (System.nanoTime() - begin) / 1e6, done,
+                          worker.batches, dashboard.repaints, longest, probe);
+        long failures = longest > EdtLatencyProbe.DEFAULT_BUDGET_MILLIS ? 1 : 0;
+        return checkProbe ? failures + probe.getStallCount() : failures;
+    }
+    
+    /**
+     * The watchlist table, painted headlessly; only touched on the EDT
+     */
+    private static class Dashboard {
+        private final StockTableModel model;
+        private final JScrollPane scroll;
+        private final BufferedImage target = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        private volatile boolean paintPending;
+        private volatile long longestEventNanos;
+        private int repaints;
+        
+        Dashboard(StockService service) throws Exception {
+            model = new StockTableModel(service);
+            scroll = new JScrollPane(new JTable(model));
+            SwingUtilities.invokeAndWait(() -> {
+                model.reload();
+                scroll.setSize(target.getWidth(), target.getHeight());
+                scroll.doLayout();
+                scroll.getViewport().doLayout();
+            });
+        }
+        
+        void reset() {
+            longestEventNanos = 0;
+            repaints = 0;
+        }
+        
+        void update(List<Stock> updated) {
+            long begin = THREADS.getCurrentThreadCpuTime();
+            model.stocksUpdated(updated);
+            if (!paintPending) {
+                paintPending = true;
+                SwingUtilities.invokeLater(this::paint);
+            }
+            record(begin);
+        }
+        
+        private void paint() {
+            long begin = THREADS.getCurrentThreadCpuTime();
+            Graphics2D g = target.createGraphics();
+            try {
+                scroll.paint(g);
+            } finally {
+                g.dispose();
+            }
+            repaints++;
+            paintPending = false;
+            record(begin);
+        }
+        
+        // CPU time, as wall time on a shared core also counts the worker's slices
+        private void record(long beginCpu) {
+            longestEventNanos = Math.max(longestEventNanos, THREADS.getCurrentThreadCpuTime() - beginCpu);
+        }
+    }
+    
+    /**
+     * Same shape as MainFrame's RefreshWorker, with the per-stock work left open
+     */
+    private abstract static class BatchWorker extends SwingWorker<Integer, Stock> {
+        private final List<Stock> stocks;
+        private final Dashboard dashboard;
+        private int batches;
+        private volatile int processed;
+        
+        BatchWorker(List<Stock> stocks, Dashboard dashboard) {
+            this.stocks = stocks;
+            this.dashboard = dashboard;
+        }
+        
+        abstract void apply(Stock stock);
+        
+        @Override
+        protected Integer doInBackground() {
+            int total = stocks.size();
+            int done = 0;
+            for (Stock stock : stocks) {
+                if (isCancelled()) {
+                    break;
+                }
+                apply(stock);
+                publish(stock);
+                if (++done % PROGRESS_BATCH == 0) {
+                    setProgress(100 * done / total);
+                }
+            }
+            return done;
+        }
+        
+        @Override
+        protected void process(List<Stock> updated) {
+            batches++;
+            dashboard.update(updated);
+            processed += updated.size();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package bench;
+
+/**
+ * Builds the state for one parameter value and returns the operation to time
+ * Setup cost is not measured.
+ */
+@FunctionalInterface
+public interface Fixture {
+    Operation setUp(String param) throws Exception;
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import service.HistoryImporter;
+import service.StockService;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * End-to-end throughput of HistoryImporter on a generated CSV file
+ * Writes ticks round-robin over the symbols with increasing timestamps
+ * (reusing the file if it already exists), imports it into a fresh
+ * StockService and reports ticks/s, MB/s and heap in use afterwards.
+ * Usage: HistoryImportBenchmark [file] [ticks] [symbols] [threads]
+ */
+public class HistoryImportBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "history-bench.csv");
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+        int symbols = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        
+        if (!Files.exists(file)) {
+            long start = System.nanoTime();
+            generate(file, ticks, symbols);
+            System.out.printf(Locale.ROOT, "Generated %,d ticks (%.1f MB) in %.1f s%n",
+                              ticks, Files.size(file) / 1e6, (System.nanoTime() - start) / 1e9);
+        }
+        
+        StockService service = new StockService();
+        for (int i = 0; i < symbols; i++) {
+            service.addStock("Imported " + i, "SYM" + i, false);
+        }
+        
+        HistoryImporter.Result result = new HistoryImporter(service, threads, HistoryImporter.DEFAULT_CHUNK_BYTES)
+                .importFile(file);
+        System.out.println(result);
+        System.out.printf(Locale.ROOT, "threads=%d %.1f MB/s, heap in use %.0f MB%n",
+                          threads, result.getBytes() / 1e6 / (result.getElapsedMillis() / 1e3), usedHeapMegabytes());
+    }
+    
+    private static void generate(Path file, long ticks, int symbols) throws IOException {
+        SplittableRandom random = new SplittableRandom(1);
+        double[] navs = new double[symbols];
+        byte[][] names = new byte[symbols][];
+        for (int i = 0; i < symbols; i++) {
+            navs[i] = 100 + random.nextDouble() * 4900;
+            names[i] = ("SYM" + i + ",").getBytes(StandardCharsets.US_ASCII);
+        }
+        
+        long timestamp = 1_600_000_000_000L;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            out.write("symbol,timestamp,nav\n".getBytes(StandardCharsets.US_ASCII));
+            StringBuilder line = new StringBuilder(48);
+            for (long t = 0; t < ticks; t++) {
+                int s = (int) (t % symbols);
+                if (s == 0) timestamp += 1000;
+                navs[s] *= 0.99 + random.nextDouble() * 0.02;
+                
+                line.setLength(0);
+                line.append(timestamp).append(',');
+                appendPrice(line, navs[s]);
+                line.append('\n');
+                out.write(names[s]);
+                for (int i = 0; i < line.length(); i++) {
+                    out.write(line.charAt(i));
+                }
+            }
+        }
+    }
+    
+    private static void appendPrice(StringBuilder line, double value) {
+        long cents = Math.round(value * 100);
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) line.append('0');
+        line.append(fraction);
+    }
+    
+    private static double usedHeapMegabytes() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return (runtime.totalMemory() - runtime.freeMemory()) / 1e6;
+    }
+}
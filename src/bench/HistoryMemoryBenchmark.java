@@ -0,0 +1,72 @@
+package bench;
+
+import model.NAVHistory;
+import model.NAVRecord;
+import model.NAVSeries;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Heap per tick of the old List<NAVRecord> history versus NAVHistory
+ * Builds each layout from the same deterministic ticks and measures the
+ * used heap it adds after a full GC, then checks that records materialized
+ * from NAVHistory match the ones stored in the list.
+ * Usage: HistoryMemoryBenchmark [ticks]  (10M ticks needs about -Xmx3g)
+ */
+public class HistoryMemoryBenchmark {
+    private static final long START_MILLIS = 1_600_000_000_000L;
+    
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        
+        long base = usedHeap();
+        List<NAVRecord> records = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < ticks; i++) {
+            records.add(new NAVRecord(100 + random.nextDouble(), START_MILLIS + i * 1000L));
+        }
+        long listBytes = usedHeap() - base;
+        report("List<NAVRecord>", listBytes, ticks);
+        
+        NAVHistory history = new NAVHistory();
+        random = new SplittableRandom(1);
+        base = usedHeap();
+        for (int i = 0; i < ticks; i++) {
+            history.append(100 + random.nextDouble(), START_MILLIS + i * 1000L);
+        }
+        long columnarBytes = usedHeap() - base;
+        report("NAVHistory", columnarBytes, ticks);
+        System.out.printf(Locale.ROOT, "NAVHistory.getMemoryUsage: %.1f MB, %.1fx smaller than the list%n",
+                          history.getMemoryUsage() / 1e6, (double) listBytes / columnarBytes);
+        
+        // Spot-check the on-demand views against the stored records
+        NAVSeries view = history.snapshot();
+        int mismatches = 0;
+        for (int i = 0; i < ticks; i += Math.max(1, ticks / 10_000)) {
+            NAVRecord expected = records.get(i);
+            NAVRecord actual = view.getRecord(i);
+            if (actual.getNav() != expected.getNav() || !actual.getTimestamp().equals(expected.getTimestamp())) {
+                mismatches++;
+            }
+        }
+        System.out.println("mismatches " + mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+    
+    private static void report(String layout, long bytes, int ticks) {
+        System.out.printf(Locale.ROOT, "%-16s %,d ticks: %.1f MB, %.1f bytes/tick%n",
+                          layout, ticks, bytes / 1e6, (double) bytes / ticks);
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,94 @@
+package bench;
+
+import model.NAVSeries;
+import model.Stock;
+import service.HistoryTierManager;
+import service.StockService;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Heap held by NAV history before and after tiering, and the cost of
+ * reading a cold history back
+ * Fills a portfolio with deterministic ticks, runs one enforcement pass
+ * against the budget, then reloads a random sample of cold histories,
+ * checking every tick against the generator, and reports reload latency.
+ * Usage: HistoryTierBenchmark [directory] [stocks] [ticksPerStock] [budgetMB] [recentTicks]
+ */
+public class HistoryTierBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "tier-bench");
+        int stocks = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+        long budget = (args.length > 3 ? Long.parseLong(args[3]) : 64) << 20;
+        int recent = args.length > 4 ? Integer.parseInt(args[4]) : 1_024;
+        
+        StockService service = new StockService();
+        double[] navs = new double[ticks];
+        long[] timestamps = new long[ticks];
+        for (int i = 0; i < stocks; i++) {
+            fill(i, navs, timestamps);
+            service.addStock("Instrument " + i, "SYM" + i, false).appendHistory(navs, timestamps, 0, ticks);
+        }
+        
+        try (HistoryTierManager tiers = new HistoryTierManager(service, directory,
+                new HistoryTierManager.Options().heapBudgetBytes(budget).recentTicks(recent).enforceIntervalMillis(0))) {
+            long before = heapMegabytes();
+            long released = tiers.enforce(); // Nothing has been read yet, so every history is a candidate
+            System.out.printf(Locale.ROOT, "pass: released %.1f MB in %d ms%n", released / 1e6, tiers.getLastPassMillis());
+            System.out.println(tiers);
+            System.out.printf(Locale.ROOT, "used heap %d MB -> %d MB%n", before, heapMegabytes());
+            
+            List<Stock> all = service.getAllStocks();
+            SplittableRandom random = new SplittableRandom(7);
+            int samples = Math.min(200, stocks);
+            long[] latencies = new long[samples];
+            int mismatches = 0;
+            for (int s = 0; s < samples; s++) {
+                int index = random.nextInt(all.size());
+                Stock stock = all.get(index);
+                long start = System.nanoTime();
+                NAVSeries history = stock.getHistory();
+                latencies[s] = System.nanoTime() - start;
+                fill(index, navs, timestamps);
+                for (int i = 0; i < ticks; i++) {
+                    if (history.getNav(i) != navs[i] || history.getTimestamp(i) != timestamps[i]) {
+                        mismatches++;
+                        break;
+                    }
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.printf(Locale.ROOT, "reload of %,d ticks: p50 %.2f ms, p99 %.2f ms, mismatched histories %d%n",
+                              ticks, latencies[samples / 2] / 1e6, latencies[samples * 99 / 100] / 1e6, mismatches);
+            tiers.enforce();
+            System.out.println(tiers);
+            if (mismatches > 0) {
+                System.exit(1);
+            }
+        } finally {
+            TickLogBenchmark.delete(directory);
+        }
+    }
+    
+    private static void fill(int instrument, double[] navs, long[] timestamps) {
+        SplittableRandom random = new SplittableRandom(instrument);
+        double nav = 100 + random.nextDouble() * 4900;
+        for (int t = 0; t < navs.length; t++) {
+            nav *= 0.99 + random.nextDouble() * 0.02;
+            navs[t] = nav;
+            timestamps[t] = 1_600_000_000_000L + t * 1000L;
+        }
+    }
+    
+    private static long heapMegabytes() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return (runtime.totalMemory() - runtime.freeMemory()) >> 20;
+    }
+}
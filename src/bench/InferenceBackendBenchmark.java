@@ -0,0 +1,63 @@
+package bench;
+
+import service.HttpInferenceBackend;
+import service.InferenceRequest;
+import service.InferenceResponse;
+import service.StubInferenceServer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offline throughput and tail-latency run of HttpInferenceBackend against
+ * the in-process StubInferenceServer, with artificial latency and a
+ * fraction of batches answered with HTTP 503 to exercise the retries
+ * Usage: InferenceBackendBenchmark [requests] [latencyMillis] [failureRate]
+ */
+public class InferenceBackendBenchmark {
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        double failures = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+        
+        try (StubInferenceServer stub = new StubInferenceServer(0, latency, failures)) {
+            stub.start();
+            HttpInferenceBackend backend = new HttpInferenceBackend(stub.getEndpoint(),
+                    new HttpInferenceBackend.Options().rateLimit(2_000, 100).callTimeoutMillis(10_000));
+            try {
+                long[] latencies = new long[requests];
+                List<CompletableFuture<InferenceResponse>> futures = new ArrayList<>(requests);
+                long start = System.nanoTime();
+                for (int i = 0; i < requests; i++) {
+                    int index = i;
+                    long issued = System.nanoTime();
+                    InferenceRequest request = new InferenceRequest("SYM" + i, 1000, 20, 950, 1000, 12.5);
+                    futures.add(backend.infer(request).whenComplete((r, e) -> latencies[index] = System.nanoTime() - issued));
+                }
+                int failed = 0;
+                for (CompletableFuture<InferenceResponse> future : futures) {
+                    try {
+                        future.join();
+                    } catch (RuntimeException e) {
+                        failed++;
+                    }
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                
+                Arrays.sort(latencies);
+                System.out.printf(Locale.ROOT, "requests=%d failed=%d throughput=%.0f/s p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms%n",
+                                  requests, failed, requests / seconds,
+                                  percentile(latencies, 0.50), percentile(latencies, 0.99),
+                                  percentile(latencies, 0.999), latencies[requests - 1] / 1e6);
+            } finally {
+                backend.close();
+            }
+        }
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
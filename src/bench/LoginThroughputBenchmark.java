@@ -0,0 +1,113 @@
+package bench;
+
+import service.AuthenticationService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Concurrent login throughput and latency run for AuthenticationService
+ * Loads the given number of accounts (hashing one password and reusing the
+ * hash so loading doesn't dominate the run), then has many threads log in
+ * with a 90/5/5 mix of valid logins, wrong passwords and unknown users.
+ * Every attempt pays one PBKDF2 verification at the given iteration count.
+ * AuthenticationBenchmarks covers single-threaded lookup scaling instead.
+ * Usage: LoginThroughputBenchmark [users] [threads] [seconds] [iterations]
+ */
+public class LoginThroughputBenchmark {
+    private static final String PASSWORD = AuthenticationBenchmarks.PASSWORD;
+    private static final int MAX_SAMPLES_PER_THREAD = 1 << 20;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        
+        long loadStart = System.nanoTime();
+        AuthenticationService service = AuthenticationBenchmarks.seededUsers(userCount, iterations);
+        double loadSeconds = (System.nanoTime() - loadStart) / 1e9;
+        
+        long[][] latencies = new long[threadCount][];
+        int[] counts = new int[threadCount];
+        int[] accepted = new int[threadCount];
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> threads = new ArrayList<>(threadCount);
+        
+        for (int t = 0; t < threadCount; t++) {
+            int index = t;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] samples = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    int roll = random.nextInt(100);
+                    String username = roll < 95 ? "user" + random.nextInt(userCount) : "nobody" + random.nextInt(userCount);
+                    String password = roll < 90 ? PASSWORD : "wrong password";
+                    
+                    long start = System.nanoTime();
+                    boolean ok = service.authenticate(username, password);
+                    long elapsed = System.nanoTime() - start;
+                    
+                    if (ok != (roll < 90)) {
+                        throw new IllegalStateException("Wrong outcome for " + username);
+                    }
+                    if (ok) accepted[index]++;
+                    if (n == samples.length && n < MAX_SAMPLES_PER_THREAD) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                    }
+                    if (n < samples.length) {
+                        samples[n] = elapsed;
+                    }
+                    n++;
+                }
+                latencies[index] = samples;
+                counts[index] = n;
+            }, "login-" + t);
+            thread.setUncaughtExceptionHandler((th, e) -> failure.compareAndSet(null, e));
+            threads.add(thread);
+        }
+        
+        long start = System.nanoTime();
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        
+        long total = 0;
+        long logins = 0;
+        int recorded = 0;
+        for (int t = 0; t < threadCount; t++) {
+            total += counts[t];
+            logins += accepted[t];
+            recorded += latencies[t] == null ? 0 : Math.min(counts[t], latencies[t].length);
+        }
+        long[] all = new long[recorded];
+        int pos = 0;
+        for (int t = 0; t < threadCount; t++) {
+            if (latencies[t] == null) continue;
+            int n = Math.min(counts[t], latencies[t].length);
+            System.arraycopy(latencies[t], 0, all, pos, n);
+            pos += n;
+        }
+        Arrays.sort(all);
+        
+        System.out.printf("users=%d loaded in %.1fs, threads=%d, iterations=%d, cores=%d%n",
+                          service.getUserCount(), loadSeconds, threadCount, iterations,
+                          Runtime.getRuntime().availableProcessors());
+        System.out.printf("attempts=%d (%.0f/s) logins=%d (%.0f/s) p50=%.2fms p99=%.2fms max=%.2fms failure=%s%n",
+                          total, total / elapsedSeconds, logins, logins / elapsedSeconds,
+                          percentile(all, 0.50), percentile(all, 0.99),
+                          all.length == 0 ? 0 : all[all.length - 1] / 1e6, failure.get());
+        if (failure.get() != null) {
+            System.exit(1);
+        }
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+}
@@ -0,0 +1,183 @@
+package bench;
+
+import model.NAVSeries;
+import model.NAVStatistics;
+import model.OHLCSeries;
+import model.Resolution;
+import model.Stock;
+import service.InferenceRequest;
+import service.PortfolioStore;
+import service.StockService;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of maintaining OHLC bars per tick, and what they save
+ * Streams one tick per second for the given number of days into a stock,
+ * checks every bar against a from-scratch aggregation, compares a daily
+ * bar query with a scan of the raw ticks, trims raw ticks past retention
+ * and finally round-trips the trimmed stock through a snapshot, checking
+ * that bars and statistics still cover the dropped ticks.
+ * Usage: OHLCBarBenchmark [directory] [days] [retentionDays]
+ */
+public class OHLCBarBenchmark {
+    private static final long START_MILLIS = 1_600_000_000_000L;
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "ohlc-bench");
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int retentionDays = args.length > 2 ? Integer.parseInt(args[2]) : 7;
+        int ticks = (int) (days * DAY_MILLIS / 1000);
+        
+        double[] navs = new double[ticks];
+        long[] timestamps = new long[ticks];
+        SplittableRandom random = new SplittableRandom(7);
+        double nav = 1000;
+        for (int i = 0; i < ticks; i++) {
+            nav *= 0.999 + random.nextDouble() * 0.002;
+            navs[i] = nav;
+            timestamps[i] = START_MILLIS + i * 1000L;
+        }
+        
+        StockService service = new StockService();
+        Stock stock = service.addStock("Bars", "BARS", false);
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            stock.addNAVRecord(navs[i], timestamps[i]);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "append %,d ticks with bars: %.1f ns/tick (%.1f M ticks/s)%n",
+                          ticks, (double) elapsed / ticks, ticks * 1e3 / elapsed);
+        
+        int mismatches = verifyBars(stock, navs, timestamps, 0);
+        
+        // The same daily view of the trend, from bars versus from raw ticks
+        int rounds = 20;
+        double sink = 0;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            sink += InferenceRequest.of(stock, Resolution.DAY, Integer.MAX_VALUE).getMeanAbsoluteChange();
+        }
+        long fromBars = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            sink += dailyMeanAbsChangeFromTicks(stock.getHistory());
+        }
+        long fromTicks = (System.nanoTime() - start) / rounds;
+        System.out.printf(Locale.ROOT, "daily trend features: bars %.3f ms, raw tick scan %.3f ms (%.0f)%n",
+                          fromBars / 1e6, fromTicks / 1e6, sink);
+        
+        long heapBefore = stock.getHistoryStore().getMemoryUsage();
+        NAVStatistics statsBefore = stock.getStatistics();
+        long cutoff = timestamps[ticks - 1] - retentionDays * DAY_MILLIS;
+        start = System.nanoTime();
+        int dropped = stock.trimHistoryBefore(cutoff);
+        System.out.printf(Locale.ROOT, "retention %d days: dropped %,d ticks in %.2f ms, history heap %.1f MB -> %.1f MB%n",
+                          retentionDays, dropped, (System.nanoTime() - start) / 1e6,
+                          heapBefore / 1e6, stock.getHistoryStore().getMemoryUsage() / 1e6);
+        mismatches += verifyBars(stock, navs, timestamps, dropped);
+        mismatches += sameStatistics(statsBefore, stock.getStatistics()) ? 0 : 1;
+        
+        try (PortfolioStore store = new PortfolioStore(directory)) {
+            store.open(service);
+            store.snapshot();
+            System.out.printf(Locale.ROOT, "snapshot of trimmed stock: %.1f MB%n", store.getLastSnapshotBytes() / 1e6);
+        }
+        StockService restored = new StockService();
+        try (PortfolioStore store = new PortfolioStore(directory)) {
+            store.open(restored);
+        }
+        Stock copy = restored.getAllStocks().get(0);
+        mismatches += verifyBars(copy, navs, timestamps, dropped);
+        mismatches += sameStatistics(statsBefore, copy.getStatistics()) ? 0 : 1;
+        System.out.println("mismatches " + mismatches);
+        TickLogBenchmark.delete(directory);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Aggregate every tick from scratch and compare with the stock's bars,
+     * and the retained ticks with the tail of the input
+     */
+    private static int verifyBars(Stock stock, double[] navs, long[] timestamps, int dropped) {
+        int mismatches = 0;
+        for (Resolution resolution : Resolution.values()) {
+            OHLCSeries bars = stock.getBars(resolution);
+            int bar = -1;
+            long current = Long.MIN_VALUE;
+            double open = 0;
+            double high = 0;
+            double low = 0;
+            double close = 0;
+            int count = 0;
+            for (int i = 0; i <= navs.length; i++) {
+                long barStart = i < navs.length ? resolution.barStart(timestamps[i]) : Long.MAX_VALUE;
+                if (barStart != current) {
+                    if (bar >= 0 && (bar >= bars.size() || bars.getStart(bar) != current
+                            || bars.getOpen(bar) != open || bars.getHigh(bar) != high || bars.getLow(bar) != low
+                            || bars.getClose(bar) != close || bars.getTickCount(bar) != count)) {
+                        mismatches++;
+                    }
+                    if (i == navs.length) {
+                        break;
+                    }
+                    bar++;
+                    current = barStart;
+                    open = high = low = navs[i];
+                    count = 0;
+                }
+                high = Math.max(high, navs[i]);
+                low = Math.min(low, navs[i]);
+                close = navs[i];
+                count++;
+            }
+            if (bar + 1 != bars.size()) {
+                mismatches++;
+            }
+        }
+        
+        NAVSeries history = stock.getHistory();
+        if (history.size() != navs.length - dropped) {
+            return mismatches + 1;
+        }
+        for (int i = 0; i < history.size(); i++) {
+            if (history.getNav(i) != navs[dropped + i] || history.getTimestamp(i) != timestamps[dropped + i]) {
+                return mismatches + 1;
+            }
+        }
+        return mismatches;
+    }
+    
+    private static double dailyMeanAbsChangeFromTicks(NAVSeries history) {
+        double sum = 0;
+        int changes = 0;
+        long day = Resolution.DAY.barStart(history.getTimestamp(0));
+        double previousClose = Double.NaN;
+        for (int i = 0; i < history.size(); i++) {
+            long barStart = Resolution.DAY.barStart(history.getTimestamp(i));
+            if (barStart != day) {
+                double close = history.getNav(i - 1);
+                if (!Double.isNaN(previousClose)) {
+                    sum += Math.abs(close - previousClose);
+                    changes++;
+                }
+                previousClose = close;
+                day = barStart;
+            }
+        }
+        return changes > 0 ? sum / changes : 0;
+    }
+    
+    private static boolean sameStatistics(NAVStatistics a, NAVStatistics b) {
+        return a.getCount() == b.getCount() && a.getFirstNav() == b.getFirstNav() && a.getLastNav() == b.getLastNav()
+            && a.getMinNav() == b.getMinNav() && a.getMaxNav() == b.getMaxNav()
+            && Math.abs(a.getChangeVariance() - b.getChangeVariance()) <= 1e-9 * Math.abs(a.getChangeVariance())
+            && Math.abs(a.getMeanAbsoluteChange() - b.getMeanAbsoluteChange()) <= 1e-9 * a.getMeanAbsoluteChange();
+    }
+}
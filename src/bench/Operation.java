@@ -0,0 +1,52 @@
+package bench;
+
+/**
+ * One invocation of a benchmarked call; the result goes to the Blackhole
+ * Implement AutoCloseable as well to release resources after the run.
+ */
+@FunctionalInterface
+public interface Operation {
+    Object run() throws Exception;
+    
+    /**
+     * Untimed hook called before every warmup and measurement iteration
+     */
+    default void beforeIteration() throws Exception {
+    }
+    
+    /**
+     * Wrap an operation so the runner releases the resource when it is done
+     */
+    static Operation closing(Operation operation, AutoCloseable resource) {
+        return new Closing(operation, resource);
+    }
+    
+    final class Closing implements Operation, AutoCloseable {
+        private final Operation operation;
+        private final AutoCloseable resource;
+        
+        Closing(Operation operation, AutoCloseable resource) {
+            this.operation = operation;
+            this.resource = resource;
+        }
+        
+        @Override
+        public Object run() throws Exception {
+            return operation.run();
+        }
+        
+        @Override
+        public void beforeIteration() throws Exception {
+            operation.beforeIteration();
+        }
+        
+        @Override
+        public void close() {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to release benchmark resource", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package bench;
+
+import model.NAVSeries;
+import model.Stock;
+import service.PortfolioStore;
+import service.StockService;
+import service.TickLog;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Cold-start cost of a large portfolio, three ways
+ * Builds a portfolio of the given size, writes it as a snapshot and as a
+ * raw tick log, then times a startup from each into a fresh StockService,
+ * and the old startup that calls addStock (generating random history) for
+ * every instrument. Each path runs once, so the restore code is not warmed.
+ * Usage: PortfolioRestoreBenchmark [directory] [instruments] [ticksPerInstrument]
+ */
+public class PortfolioRestoreBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "restore-bench");
+        int instruments = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        TickLogBenchmark.delete(directory);
+        Path snapshotDirectory = directory.resolve("snapshot");
+        Path tickDirectory = directory.resolve("ticks");
+        
+        StockService source = build(instruments, ticks);
+        try (PortfolioStore store = new PortfolioStore(snapshotDirectory)) {
+            store.open(source); // Empty directory: nothing restored, mutations logged from here
+            store.snapshot();
+            reportMillis("snapshot write", store.getLastSnapshotMillis(), store.getLastSnapshotBytes(), "bytes");
+        }
+        
+        long start = System.nanoTime();
+        try (TickLog log = new TickLog(tickDirectory, new TickLog.Options().syncIntervalMillis(0))) {
+            for (Stock stock : source.getAllStocks()) {
+                NAVSeries history = stock.getHistory();
+                for (int i = 0; i < history.size(); i++) {
+                    log.append(stock.getId(), history.getTimestamp(i), history.getNav(i));
+                }
+            }
+        }
+        report("tick log write", start, instruments * (long) ticks, "ticks");
+        source = null;
+        
+        System.gc();
+        start = System.nanoTime();
+        StockService restored = new StockService();
+        try (PortfolioStore store = new PortfolioStore(snapshotDirectory)) {
+            store.open(restored);
+            report("snapshot restore", start, restored.getStockCount(), "stocks");
+        }
+        restored = null;
+        
+        System.gc();
+        start = System.nanoTime();
+        StockService replayed = new StockService();
+        for (int i = 0; i < instruments; i++) {
+            replayed.addStock("Instrument " + i, "SYM" + i, false);
+        }
+        try (TickLog log = new TickLog(tickDirectory)) {
+            replayed.replayTicks(log);
+        }
+        report("tick log replay", start, replayed.getStockCount(), "stocks");
+        replayed = null;
+        
+        System.gc();
+        start = System.nanoTime();
+        StockService generated = new StockService();
+        for (int i = 0; i < instruments; i++) {
+            generated.addStock("Instrument " + i, "SYM" + i);
+        }
+        report("addStock rebuild", start, generated.getStockCount(), "stocks");
+        
+        TickLogBenchmark.delete(directory);
+    }
+    
+    private static StockService build(int instruments, int ticks) {
+        StockService service = new StockService();
+        SplittableRandom random = new SplittableRandom(1);
+        double[] navs = new double[ticks];
+        long[] timestamps = new long[ticks];
+        for (int i = 0; i < instruments; i++) {
+            Stock stock = service.addStock("Instrument " + i, "SYM" + i, false);
+            double nav = 100 + random.nextDouble() * 4900;
+            for (int t = 0; t < ticks; t++) {
+                nav *= 0.99 + random.nextDouble() * 0.02;
+                navs[t] = nav;
+                timestamps[t] = 1_600_000_000_000L + t * 1000L;
+            }
+            stock.appendHistory(navs, timestamps, 0, ticks);
+            stock.setBuyThreshold(nav * 0.9);
+            stock.setSellThreshold(nav * 1.1);
+        }
+        return service;
+    }
+    
+    private static void report(String what, long startNanos, long count, String unit) {
+        reportMillis(what, (System.nanoTime() - startNanos) / 1_000_000, count, unit);
+    }
+    
+    private static void reportMillis(String what, long millis, long count, String unit) {
+        System.out.printf(Locale.ROOT, "%-18s %8d ms  %,d %s%n", what, millis, count, unit);
+    }
+}
@@ -0,0 +1,37 @@
+package bench;
+
+import model.Stock;
+import service.GeminiAIService;
+import service.PredictionCache;
+import service.StockService;
+
+/**
+ * GeminiAIService prediction pipeline on the local backend, cold and cached
+ */
+public final class PredictionBenchmarks {
+    
+    private PredictionBenchmarks() {
+    }
+    
+    static void register(BenchmarkRunner runner) {
+        runner.add("GeminiAIService.predictNAV.cold", param -> {
+            // Zero TTL: every call misses and runs the full pipeline
+            GeminiAIService ai = new GeminiAIService(1, new PredictionCache(1, 0));
+            Stock stock = StockServiceBenchmarks.populate(1).getAllStocks().get(0);
+            return Operation.closing(() -> ai.predictNAV(stock), ai::shutdown);
+        });
+        
+        runner.add("GeminiAIService.predictNAV.cached", param -> {
+            GeminiAIService ai = new GeminiAIService();
+            Stock stock = StockServiceBenchmarks.populate(1).getAllStocks().get(0);
+            return Operation.closing(() -> ai.predictNAV(stock), ai::shutdown);
+        });
+        
+        runner.add("GeminiAIService.predictAll.cold", "size", StockServiceBenchmarks.SIZES, param -> {
+            StockService service = StockServiceBenchmarks.populate(Integer.parseInt(param));
+            GeminiAIService ai = new GeminiAIService(Runtime.getRuntime().availableProcessors(),
+                                                     new PredictionCache(1, 0));
+            return Operation.closing(() -> ai.predictAll(service.getAllStocks()), ai::shutdown);
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package bench;
+
+import model.Recommendation;
+import model.Stock;
+import service.StockService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Property check: the incrementally maintained BUY/SELL/HOLD counters
+ * always equal a full recompute
+ * Each round applies a random mix of threshold edits, single ticks, bulk
+ * appends, parallel tick passes, adds and removes, then recomputes every
+ * stock's recommendation from its NAV and thresholds and compares the
+ * totals with StockService.getRecommendationCount. Every few rounds the
+ * same mix also runs from several threads at once and is checked once
+ * they have finished.
+ * Usage: RecommendationCountCheck [rounds] [seed] [threads]
+ */
+public class RecommendationCountCheck {
+    private static final int INITIAL_STOCKS = 200;
+    private static final int OPERATIONS_PER_ROUND = 500;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        
+        StockService service = new StockService();
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] nextName = {0};
+        for (int i = 0; i < INITIAL_STOCKS; i++) {
+            service.addStock("Stock " + nextName[0], "S" + nextName[0]++);
+        }
+        
+        AtomicInteger crashes = new AtomicInteger();
+        int failures = 0;
+        for (int round = 0; round < rounds; round++) {
+            if (round % 10 == 9) {
+                List<Thread> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    SplittableRandom split = random.split();
+                    String prefix = "W" + round + "-" + t + "-";
+                    workers.add(new Thread(() -> {
+                        try {
+                            for (int op = 0; op < OPERATIONS_PER_ROUND; op++) {
+                                mutate(service, split, prefix + op, false);
+                            }
+                        } catch (RuntimeException e) {
+                            crashes.incrementAndGet();
+                            e.printStackTrace();
+                        }
+                    }, "count-check-" + t));
+                }
+                for (Thread worker : workers) {
+                    worker.start();
+                }
+                for (Thread worker : workers) {
+                    worker.join();
+                }
+            } else {
+                for (int op = 0; op < OPERATIONS_PER_ROUND; op++) {
+                    mutate(service, random, "R" + nextName[0]++, true);
+                }
+            }
+            
+            String mismatch = compare(service);
+            if (mismatch != null) {
+                System.out.println("round " + round + ": " + mismatch);
+                failures++;
+            }
+        }
+        failures += crashes.get();
+        System.out.printf("%d rounds over up to %d stocks: %d failures%n", rounds, service.getIdCapacity(), failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+    
+    // One random operation; thresholds straddle the NAVs so transitions are frequent
+    private static void mutate(StockService service, SplittableRandom random, String uniqueName, boolean allowPass) {
+        int choice = random.nextInt(100);
+        Stock stock = service.getStock(random.nextInt(Math.max(1, service.getIdCapacity())));
+        if (choice < 3) {
+            Stock added = service.addStock(uniqueName, uniqueName.toUpperCase(), random.nextBoolean());
+            added.setBuyThreshold(added.getCurrentNAV() * (0.9 + random.nextDouble() * 0.2));
+        } else if (choice < 6) {
+            if (stock != null) {
+                service.removeStock(stock.getName());
+            }
+        } else if (choice < 7 && allowPass) {
+            service.updateAllNAVs(random.nextLong());
+        } else if (stock == null) {
+            return;
+        } else if (choice < 30) {
+            double nav = Math.max(1, stock.getCurrentNAV());
+            double threshold = random.nextInt(4) == 0 ? 0 : nav * (0.9 + random.nextDouble() * 0.2);
+            if (random.nextBoolean()) {
+                stock.setBuyThreshold(threshold);
+            } else {
+                stock.setSellThreshold(threshold);
+            }
+        } else if (choice < 40) {
+            int n = 1 + random.nextInt(5);
+            double[] navs = new double[n];
+            long[] timestamps = new long[n];
+            for (int i = 0; i < n; i++) {
+                navs[i] = Math.max(1, stock.getCurrentNAV()) * (0.9 + random.nextDouble() * 0.2);
+                timestamps[i] = System.currentTimeMillis();
+            }
+            stock.appendHistory(navs, timestamps, 0, n);
+        } else {
+            stock.setCurrentNAV(Math.max(1, stock.getCurrentNAV()) * (0.9 + random.nextDouble() * 0.2));
+        }
+    }
+    
+    // Null when the counters agree with a recount from scratch
+    private static String compare(StockService service) {
+        long[] expected = new long[Recommendation.values().length];
+        for (Stock stock : service.getAllStocks()) {
+            Recommendation state = Recommendation.of(stock.getCurrentNAV(), stock.getBuyThreshold(),
+                                                     stock.getSellThreshold());
+            if (state != stock.getRecommendationState()) {
+                return stock.getSymbol() + " caches " + stock.getRecommendationState() + " but is " + state;
+            }
+            expected[state.ordinal()]++;
+        }
+        for (Recommendation recommendation : Recommendation.values()) {
+            long counted = service.getRecommendationCount(recommendation);
+            if (counted != expected[recommendation.ordinal()]) {
+                return recommendation + " counter " + counted + ", recount " + expected[recommendation.ordinal()];
+            }
+        }
+        return null;
+    }
+}
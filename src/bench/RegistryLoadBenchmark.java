@@ -0,0 +1,93 @@
+package bench;
+
+import model.Stock;
+import service.StockService;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Registers a large instrument universe in StockService and times the
+ * indexed operations on it
+ * Adds N instruments, then looks up random ones by name (in another case),
+ * symbol and instrument id, checks that duplicates are rejected, removes
+ * every tenth instrument and verifies lookups and counts afterwards.
+ * Usage: RegistryLoadBenchmark [instruments] [generateHistory]
+ */
+public class RegistryLoadBenchmark {
+    private static final int LOOKUPS = 1_000_000;
+    
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        boolean generateHistory = args.length > 1 && Boolean.parseBoolean(args[1]);
+        
+        StockService service = new StockService();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            service.addStock("Instrument " + i, "SYM" + i, generateHistory);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "register %,d instruments%s: %d ms (%.0f ns/add)%n", count,
+                          generateHistory ? " with history" : "", elapsed / 1_000_000, (double) elapsed / count);
+        
+        int failures = 0;
+        SplittableRandom random = new SplittableRandom(5);
+        String[] names = new String[LOOKUPS];
+        String[] symbols = new String[LOOKUPS];
+        int[] ids = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            int n = random.nextInt(count);
+            names[i] = "INSTRUMENT " + n;
+            symbols[i] = "sym" + n;
+            ids[i] = n;
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            failures += service.getStock(names[i]) == null ? 1 : 0;
+        }
+        long byName = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            failures += service.getStockBySymbol(symbols[i]) == null ? 1 : 0;
+        }
+        long bySymbol = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            Stock stock = service.getStock(ids[i]);
+            failures += stock == null || stock.getId() != ids[i] ? 1 : 0;
+        }
+        long byId = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "lookup by name %.0f ns, by symbol %.0f ns, by id %.0f ns%n",
+                          (double) byName / LOOKUPS, (double) bySymbol / LOOKUPS, (double) byId / LOOKUPS);
+        
+        try {
+            service.addStock("instrument 7", "OTHER", false);
+            failures++;
+        } catch (IllegalArgumentException expected) {
+            // Duplicate name, in another case
+        }
+        
+        start = System.nanoTime();
+        int removed = 0;
+        for (int i = 0; i < count; i += 10) {
+            removed += service.removeStock("Instrument " + i) ? 1 : 0;
+        }
+        elapsed = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "remove %,d instruments: %d ms (%.0f ns/remove)%n",
+                          removed, elapsed / 1_000_000, (double) elapsed / Math.max(1, removed));
+        
+        for (int i = 0; i < count; i++) {
+            boolean gone = i % 10 == 0;
+            Stock stock = service.getStock(i);
+            if ((stock == null) != gone || (service.getStockBySymbol("SYM" + i) == null) != gone) {
+                failures++;
+            }
+        }
+        if (service.getStockCount() != count - removed || service.getAllStocks().size() != count - removed) {
+            failures++;
+        }
+        System.out.println("failures " + failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
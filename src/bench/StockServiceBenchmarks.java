@@ -0,0 +1,84 @@
+package bench;
+
+import service.StockService;
+
+/**
+ * StockService hot paths across portfolio sizes
+ */
+public final class StockServiceBenchmarks {
+    static final String[] SIZES = {"10", "1000", "100000", "1000000"};
+    
+    /** Ticks a tick-pass fixture may accumulate before it is rebuilt between iterations */
+    private static final long MAX_APPENDED_TICKS = 50_000_000L;
+    
+    private StockServiceBenchmarks() {
+    }
+    
+    static void register(BenchmarkRunner runner) {
+        runner.add("StockService.addStock", "size", SIZES, param -> {
+            StockService service = populate(Integer.parseInt(param));
+            int[] next = {0};
+            return () -> service.addStock("Added " + next[0], "ADD" + next[0]++);
+        });
+        
+        runner.add("StockService.getStock", "size", SIZES, param -> {
+            int size = Integer.parseInt(param);
+            StockService service = populate(size);
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = name(i);
+            }
+            int[] cursor = {0};
+            return () -> service.getStock(names[cursor[0] = (cursor[0] + 7919) % size]);
+        });
+        
+        runner.add("StockService.getStockById", "size", SIZES, param -> {
+            int size = Integer.parseInt(param);
+            StockService service = populate(size);
+            int[] cursor = {0};
+            return () -> service.getStock(cursor[0] = (cursor[0] + 7919) % size);
+        });
+        
+        runner.add("StockService.updateAllNAVs", "size", SIZES, param -> {
+            int size = Integer.parseInt(param);
+            return new Operation() {
+                private StockService service;
+                private long appended;
+                
+                @Override
+                public void beforeIteration() {
+                    // Every pass grows each history by a tick; start over before the heap fills up
+                    if (service == null || appended > MAX_APPENDED_TICKS) {
+                        service = null;
+                        service = populate(size);
+                        appended = 0;
+                    }
+                }
+                
+                @Override
+                public Object run() {
+                    service.updateAllNAVs();
+                    appended += size;
+                    return service;
+                }
+            };
+        });
+        
+        runner.add("StockService.getMarketSummary", "size", SIZES, param -> {
+            StockService service = populate(Integer.parseInt(param));
+            return service::getMarketSummary;
+        });
+    }
+    
+    static StockService populate(int size) {
+        StockService service = new StockService();
+        for (int i = 0; i < size; i++) {
+            service.addStock(name(i), "SYM" + i);
+        }
+        return service;
+    }
+    
+    private static String name(int i) {
+        return "Stock " + i;
+    }
+}
@@ -0,0 +1,130 @@
+package bench;
+
+import model.NAVRecord;
+import model.NAVSeries;
+import model.Recommendation;
+import model.Stock;
+import service.StockService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency stress run for StockService and the stock model
+ * Mutator threads add and remove stocks and a ticker runs updateAllNAVs
+ * while reader threads walk portfolios and NAV histories. Reports the
+ * throughput of each kind of operation, then checks that readers never
+ * failed and the recommendation counters still match the portfolio.
+ * Usage: StockServiceStress [seconds] [readers] [mutators]
+ */
+public class StockServiceStress {
+    private static final int BASE_STOCKS = 2_000;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int mutators = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        
+        StockService service = new StockService();
+        for (int i = 0; i < BASE_STOCKS; i++) {
+            service.addStock("Base " + i, "BASE" + i);
+        }
+        
+        LongAdder adds = new LongAdder();
+        LongAdder removes = new LongAdder();
+        LongAdder tickPasses = new LongAdder();
+        LongAdder historyReads = new LongAdder();
+        LongAdder recordsRead = new LongAdder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int m = 0; m < mutators; m++) {
+            int mutator = m;
+            threads.add(new Thread(() -> {
+                int next = 0;
+                while (System.nanoTime() < deadline) {
+                    String name = "Temp " + mutator + "-" + next;
+                    service.addStock(name, "T" + mutator + "X" + next);
+                    adds.increment();
+                    if (next >= 100 && service.removeStock("Temp " + mutator + "-" + (next - 100))) {
+                        removes.increment();
+                    }
+                    next++;
+                }
+            }, "stress-mutator-" + m));
+        }
+        
+        threads.add(new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                service.updateAllNAVs();
+                tickPasses.increment();
+            }
+        }, "stress-ticker"));
+        
+        for (int r = 0; r < readers; r++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    List<Stock> stocks = service.getAllStocks();
+                    Stock stock = service.getStock(random.nextInt(service.getIdCapacity()));
+                    if (stock == null) {
+                        stock = stocks.get(random.nextInt(stocks.size()));
+                    }
+                    
+                    long before = stock.getHistoryVersion();
+                    List<NAVRecord> history = stock.getNavHistory();
+                    NAVSeries series = stock.getHistory();
+                    int count = 0;
+                    for (NAVRecord record : history) {
+                        if (!(record.getNav() > 0)) {
+                            throw new IllegalStateException("Torn read of " + stock.getSymbol());
+                        }
+                        count++;
+                    }
+                    if (count != history.size() || series.size() < count || stock.getStatistics().getCount() < count
+                            || stock.getHistoryVersion() < before) {
+                        throw new IllegalStateException("Inconsistent history for " + stock.getSymbol());
+                    }
+                    historyReads.increment();
+                    recordsRead.add(count);
+                }
+            }, "stress-reader-" + r));
+        }
+        
+        for (Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((t, e) -> failure.compareAndSet(null, e));
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        // Counters are maintained incrementally; they must match a full recount
+        List<Stock> remaining = service.getAllStocks();
+        long counted = 0;
+        for (Recommendation recommendation : Recommendation.values()) {
+            long actual = remaining.stream().filter(s -> s.getRecommendationState() == recommendation).count();
+            long expected = service.getRecommendationCount(recommendation);
+            if (actual != expected) {
+                failure.compareAndSet(null, new IllegalStateException(
+                        "Counter drift for " + recommendation + ": " + expected + " != " + actual));
+            }
+            counted += expected;
+        }
+        
+        System.out.printf("seconds=%d readers=%d mutators=%d stocks=%d%n",
+                          seconds, readers, mutators, service.getStockCount());
+        System.out.printf("adds=%.0f/s removes=%.0f/s tickPasses=%.1f/s historyReads=%.0f/s records=%.0f/s%n",
+                          adds.sum() / (double) seconds, removes.sum() / (double) seconds,
+                          tickPasses.sum() / (double) seconds, historyReads.sum() / (double) seconds,
+                          recordsRead.sum() / (double) seconds);
+        System.out.printf("counted=%d failure=%s%n", counted, failure.get());
+        if (failure.get() != null || counted != remaining.size()) {
+            System.exit(1);
+        }
+    }
+}
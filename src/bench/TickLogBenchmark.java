@@ -0,0 +1,79 @@
+package bench;
+
+import service.TickLog;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * Sustained appends/s of TickLog under each fsync policy
+ * Every run starts from an empty log directory and appends from the given
+ * number of threads for a fixed time; the final sync is included.
+ * Usage: TickLogBenchmark [directory] [seconds] [threads]
+ */
+public class TickLogBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "ticklog-bench");
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        
+        String[] names = {"no sync", "every 1000", "every 100 ms", "every 10 ms"};
+        TickLog.Options[] policies = {
+            new TickLog.Options().syncIntervalMillis(0),
+            new TickLog.Options().syncIntervalMillis(0).syncEveryRecords(1_000),
+            new TickLog.Options().syncIntervalMillis(100),
+            new TickLog.Options().syncIntervalMillis(10)
+        };
+        int[] threadCounts = threads > 1 ? new int[] {1, threads} : new int[] {1};
+        
+        for (int p = 0; p < policies.length; p++) {
+            for (int count : threadCounts) {
+                delete(directory);
+                double rate = run(directory, policies[p].recordsPerSegment(1 << 20), seconds, count);
+                System.out.printf(Locale.ROOT, "%-14s threads=%-3d %,14.0f appends/s%n", names[p], count, rate);
+            }
+        }
+        delete(directory);
+    }
+    
+    private static double run(Path directory, TickLog.Options options, double seconds, int threads) throws Exception {
+        try (TickLog log = new TickLog(directory, options)) {
+            long deadline = System.nanoTime() + (long) (seconds * 1e9);
+            CountDownLatch done = new CountDownLatch(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                Thread thread = new Thread(() -> {
+                    long millis = 1_600_000_000_000L;
+                    double nav = 1000;
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 256; i++) {
+                            log.append(id, millis++, nav);
+                            nav += 0.01;
+                        }
+                    }
+                    done.countDown();
+                }, "append-" + t);
+                thread.start();
+            }
+            done.await();
+            log.sync();
+            return log.getNextSequence() / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+    
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
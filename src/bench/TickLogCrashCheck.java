@@ -0,0 +1,123 @@
+package bench;
+
+import service.TickLog;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crash-recovery check for TickLog
+ * Starts a child JVM that appends deterministic ticks from several threads
+ * and prints its synced sequence after every sync, kills it mid-stream with
+ * SIGKILL, then reopens the log and verifies that every record below the
+ * last reported synced sequence survived intact and that appending resumes
+ * after the recovered tail. Slots left torn by an earlier round were never
+ * synced and stay empty, so each round only checks from where it resumed.
+ * Exits with status 1 on any violation.
+ * Usage: TickLogCrashCheck [directory] [rounds]
+ */
+public class TickLogCrashCheck {
+    private static final int WRITERS = 4;
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--child")) {
+            child(Paths.get(args[1]));
+            return;
+        }
+        Path directory = Paths.get(args.length > 0 ? args[0] : "ticklog-crash");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        TickLogBenchmark.delete(directory);
+        
+        boolean ok = true;
+        long resumed = 0;
+        for (int round = 1; round <= rounds && ok; round++) {
+            long synced = crashChild(directory);
+            long next = verify(directory, resumed, synced, round);
+            ok = next >= 0;
+            resumed = next;
+        }
+        TickLogBenchmark.delete(directory);
+        System.out.println(ok ? "OK" : "FAILED");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+    
+    // Appends until killed; instrument id = writer, NAV derived from the timestamp
+    private static void child(Path directory) throws Exception {
+        TickLog log = new TickLog(directory, new TickLog.Options()
+                .recordsPerSegment(1 << 16).syncIntervalMillis(0));
+        for (int w = 0; w < WRITERS; w++) {
+            int id = w;
+            Thread writer = new Thread(() -> {
+                for (long millis = 0; ; millis++) {
+                    log.append(id, millis, expectedNav(id, millis));
+                }
+            });
+            writer.setDaemon(true);
+            writer.start();
+        }
+        while (true) {
+            Thread.sleep(5);
+            log.sync();
+            System.out.println(log.getSyncedSequence());
+        }
+    }
+    
+    private static long crashChild(Path directory) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                             TickLogCrashCheck.class.getName(), "--child", directory.toString())
+                .redirectErrorStream(true)
+                .start();
+        long synced = -1;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1_500);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (System.nanoTime() < deadline && (line = reader.readLine()) != null) {
+                synced = Long.parseLong(line.trim());
+            }
+            process.destroyForcibly().waitFor();
+        }
+        return synced;
+    }
+    
+    // Returns where appending resumes, or -1 on a violation
+    private static long verify(Path directory, long from, long synced, int round) throws Exception {
+        long[] missing = {0};
+        long[] corrupt = {0};
+        long[] next = {from};
+        long visited = TickLog.scan(directory, (sequence, id, millis, nav) -> {
+            if (id < 0 || id >= WRITERS || nav != expectedNav(id, millis)) {
+                corrupt[0]++;
+            }
+            if (sequence < from) {
+                return;
+            }
+            if (sequence < synced) {
+                missing[0] += sequence - next[0]; // Gap below the synced mark
+            }
+            next[0] = sequence + 1;
+        });
+        if (next[0] < synced) {
+            missing[0] += synced - next[0];
+        }
+        
+        long resumed;
+        try (TickLog log = new TickLog(directory)) {
+            resumed = log.getNextSequence();
+        }
+        boolean ok = missing[0] == 0 && corrupt[0] == 0 && synced > 0 && resumed >= synced;
+        System.out.printf("round %d: synced=%,d intact=%,d missing=%d corrupt=%d resumed at %,d %s%n",
+                          round, synced, visited, missing[0], corrupt[0], resumed, ok ? "ok" : "FAILED");
+        return ok ? resumed : -1;
+    }
+    
+    private static double expectedNav(int id, long millis) {
+        return 100 + id + millis * 0.25;
+    }
+}
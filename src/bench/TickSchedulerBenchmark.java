@@ -0,0 +1,85 @@
+package bench;
+
+import model.Stock;
+import service.StockService;
+import service.TickScheduler;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate accuracy and frame coalescing of the streaming tick scheduler
+ * For each target rate the scheduler runs against a fixed portfolio while a
+ * frame loop drains the updated stocks every 33 ms, as the dashboard's frame
+ * timer does. Reports the achieved rate against the target, and how many
+ * ticks each frame collapsed into how many row updates. Fails if a rate is
+ * off by more than 5%, a frame lists a stock twice, or a period threw.
+ * Usage: TickSchedulerBenchmark [stocks] [seconds] [rate...]
+ */
+public class TickSchedulerBenchmark {
+    private static final long FRAME_MILLIS = 33;
+    private static final double TOLERANCE = 0.05;
+    
+    public static void main(String[] args) throws Exception {
+        int stockCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        double[] rates = {1_000, 10_000, 100_000};
+        if (args.length > 2) {
+            rates = new double[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                rates[i - 2] = Double.parseDouble(args[i]);
+            }
+        }
+        
+        StockService service = new StockService();
+        for (int i = 0; i < stockCount; i++) {
+            service.addStock("Instrument " + i, "SYM" + i, false).setCurrentNAV(100 + i % 1000);
+        }
+        
+        int failures = 0;
+        for (double rate : rates) {
+            TickScheduler scheduler = new TickScheduler(service, rate);
+            long frames = 0;
+            long rows = 0;
+            int maxRows = 0;
+            int duplicates = 0;
+            
+            scheduler.start();
+            long begin = System.nanoTime();
+            long end = begin + TimeUnit.SECONDS.toNanos(seconds);
+            long nextFrame = begin;
+            while ((nextFrame += TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS)) < end) {
+                TimeUnit.NANOSECONDS.sleep(nextFrame - System.nanoTime());
+                List<Stock> updated = scheduler.drainUpdated();
+                Set<Stock> distinct = new HashSet<>(updated);
+                duplicates += updated.size() - distinct.size();
+                frames++;
+                rows += updated.size();
+                maxRows = Math.max(maxRows, updated.size());
+            }
+            scheduler.stop();
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+            long ticks = scheduler.getTickCount();
+            rows += scheduler.drainUpdated().size();
+            
+            double achieved = ticks / elapsed;
+            double error = Math.abs(achieved - rate) / rate;
+            boolean failed = error > TOLERANCE || duplicates > 0 || scheduler.getFailureCount() > 0;
+            if (failed) {
+                failures++;
+            }
+            System.out.printf(Locale.ROOT, "target %,9.0f/s: achieved %,9.0f/s (%+.1f%%), %,d frames, "
+                              + "%,.0f ticks -> %,.0f row updates per frame (max %,d), %.1f ticks per update%s%n",
+                              rate, achieved, 100 * (achieved - rate) / rate, frames, (double) ticks / frames,
+                              (double) rows / frames, maxRows, rows == 0 ? 0 : (double) ticks / rows,
+                              failed ? "  FAILED" : "");
+        }
+        
+        System.out.println("failures " + failures);
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
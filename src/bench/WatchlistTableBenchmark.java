@@ -0,0 +1,142 @@
+package bench;
+
+import model.Stock;
+import service.StockService;
+import ui.StockTableModel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost on the EDT of keeping a large watchlist table current
+ * Ticks a random subset of a 20k-stock portfolio several times a second.
+ * Each update fires row events through StockTableModel.stocksUpdated and
+ * paints the visible part of the table headlessly. The time each update
+ * holds the EDT is reported as percentiles; the run fails when p99 misses a
+ * 16 ms frame. For
+ * contrast, one full rebuild of a DefaultTableModel, as the table used to
+ * be refreshed, is timed as well. The first second is warm-up and not counted.
+ * Usage: WatchlistTableBenchmark [stocks] [updatesPerSecond] [stocksPerUpdate] [seconds]
+ */
+public class WatchlistTableBenchmark {
+    private static final int WIDTH = 1200;
+    private static final int HEIGHT = 800;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    
+    public static void main(String[] args) throws Exception {
+        int stockCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int perUpdate = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        StockService service = new StockService();
+        for (int i = 0; i < stockCount; i++) {
+            service.addStock("Instrument " + i, "SYM" + i, false).setCurrentNAV(100 + i % 1000);
+        }
+        StockTableModel model = new StockTableModel(service);
+        JTable table = new JTable(model);
+        JScrollPane scroll = new JScrollPane(table);
+        BufferedImage target = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        int[] rowEvents = {0};
+        model.addTableModelListener(e -> rowEvents[0]++);
+        SwingUtilities.invokeAndWait(() -> {
+            model.reload();
+            scroll.setSize(WIDTH, HEIGHT);
+            layout(scroll);
+            paint(scroll, target);
+        });
+        
+        List<Stock> stocks = service.getAllStocks();
+        SplittableRandom random = new SplittableRandom(9);
+        int warmup = rate;
+        int updates = rate * seconds;
+        long[] edtNanos = new long[warmup + updates];
+        long period = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int u = 0; u < warmup + updates; u++) {
+            if (u == warmup) {
+                rowEvents[0] = 0;
+            }
+            List<Stock> ticked = new ArrayList<>(perUpdate);
+            for (int i = 0; i < perUpdate; i++) {
+                Stock stock = stocks.get(random.nextInt(stocks.size()));
+                stock.setCurrentNAV(stock.getCurrentNAV() * (0.99 + random.nextDouble() * 0.02));
+                ticked.add(stock);
+            }
+            int update = u;
+            SwingUtilities.invokeAndWait(() -> {
+                long begin = System.nanoTime();
+                model.stocksUpdated(ticked);
+                paint(scroll, target);
+                edtNanos[update] = System.nanoTime() - begin;
+            });
+            long due = start + (u + 1) * period;
+            while (System.nanoTime() < due) {
+                Thread.sleep(1);
+            }
+        }
+        
+        long[] sorted = Arrays.copyOfRange(edtNanos, warmup, edtNanos.length);
+        Arrays.sort(sorted);
+        long p99 = sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+        long overFrame = Arrays.stream(sorted).filter(n -> n > FRAME_NANOS).count();
+        System.out.printf(Locale.ROOT, "%,d rows, %d updates/s of %,d stocks: EDT per update p50 %.2f ms, "
+                          + "p99 %.2f ms, max %.2f ms, %d over 16 ms%n", stockCount, rate, perUpdate,
+                          sorted[sorted.length / 2] / 1e6, p99 / 1e6,
+                          sorted[sorted.length - 1] / 1e6, overFrame);
+        System.out.printf(Locale.ROOT, "row update events: %.1f per update%n", (double) rowEvents[0] / updates);
+        
+        // The old refresh: clear the DefaultTableModel and format every row again
+        DefaultTableModel rebuilt = new DefaultTableModel(new String[] {"Stock Name", "Symbol", "Current NAV",
+            "Buy Threshold", "Sell Threshold", "Recommendation", "AI Prediction"}, 0);
+        long[] rebuildNanos = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            table.setModel(rebuilt);
+            long begin = System.nanoTime();
+            rebuilt.setRowCount(0);
+            for (Stock stock : stocks) {
+                rebuilt.addRow(new Object[] {stock.getName(), stock.getSymbol(),
+                    String.format("₹%.2f", stock.getCurrentNAV()),
+                    stock.getBuyThreshold() > 0 ? String.format("₹%.2f", stock.getBuyThreshold()) : "Not Set",
+                    stock.getSellThreshold() > 0 ? String.format("₹%.2f", stock.getSellThreshold()) : "Not Set",
+                    stock.getRecommendation(), "Click Predict"});
+            }
+            paint(scroll, target);
+            rebuildNanos[0] = System.nanoTime() - begin;
+        });
+        System.out.printf(Locale.ROOT, "full DefaultTableModel rebuild: %.2f ms%n", rebuildNanos[0] / 1e6);
+        if (p99 > FRAME_NANOS) {
+            System.exit(1);
+        }
+    }
+    
+    private static void layout(Component component) {
+        if (component instanceof Container) {
+            Container container = (Container) component;
+            container.doLayout();
+            for (Component child : container.getComponents()) {
+                layout(child);
+            }
+        }
+    }
+    
+    private static void paint(JScrollPane scroll, BufferedImage target) {
+        Graphics2D g = target.createGraphics();
+        try {
+            scroll.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package main;
+
+import model.Stock;
+import service.GeminiAIService;
+import service.HttpInferenceBackend;
+import service.InferenceBackend;
+import service.LocalInferenceBackend;
+import service.PredictionCache;
+import service.PredictionResult;
+import service.StockService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Headless batch mode: scores a portfolio file without starting Swing
+ * Only model and service classes are used here, so no AWT class is ever
+ * loaded. Reads "name,symbol[,buyThreshold,sellThreshold]" lines (blank
+ * lines and lines starting with # are skipped), optionally applies random
+ * ticks, runs every stock through GeminiAIService and writes one CSV row
+ * per stock.
+ */
+public class BatchRunner {
+    static final String USAGE = String.join("\n",
+        "Usage: StockManagerApp --batch <portfolio.csv> [options]",
+        "  --out <file>        write results to a file instead of stdout",
+        "  --ticks <n>         apply n random NAV ticks before scoring (default 0)",
+        "  --seed <n>          seed for the ticks, for reproducible runs",
+        "  --endpoint <url>    score with a remote inference endpoint instead of the local model",
+        "  --quick-exit        halt as soon as results are flushed, skipping orderly shutdown");
+    
+    private static final String HEADER = "symbol,name,currentNAV,buyThreshold,sellThreshold,recommendation,"
+                                         + "predictedNAV,expectedChangePercent,confidence,signal,trend,risk";
+    
+    private String portfolioFile;
+    private String outFile;
+    private int ticks;
+    private Long seed;
+    private String endpoint;
+    private boolean quickExit;
+    
+    /**
+     * Run batch mode; returns the process exit status
+     */
+    public static int run(String[] args) {
+        long start = System.nanoTime();
+        BatchRunner runner = new BatchRunner();
+        try {
+            runner.parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+        
+        int status;
+        try {
+            status = runner.execute(start);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Batch run failed: " + e.getMessage());
+            status = 1;
+        }
+        if (runner.quickExit) {
+            System.out.flush();
+            System.err.flush();
+            Runtime.getRuntime().halt(status);
+        }
+        return status;
+    }
+    
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch": portfolioFile = value(args, ++i, "--batch"); break;
+                case "--out": outFile = value(args, ++i, "--out"); break;
+                case "--ticks": ticks = Integer.parseInt(value(args, ++i, "--ticks")); break;
+                case "--seed": seed = Long.parseLong(value(args, ++i, "--seed")); break;
+                case "--endpoint": endpoint = value(args, ++i, "--endpoint"); break;
+                case "--quick-exit": quickExit = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (portfolioFile == null) {
+            throw new IllegalArgumentException("Missing portfolio file");
+        }
+    }
+    
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+    
+    private int execute(long start) throws IOException {
+        StockService stockService = new StockService();
+        int lineNumber = 0;
+        int errors = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(portfolioFile), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("name,"))) {
+                    continue;
+                }
+                try {
+                    addStock(stockService, line.split(","));
+                } catch (IllegalArgumentException e) {
+                    System.err.println(portfolioFile + ":" + lineNumber + ": " + e.getMessage());
+                    errors++;
+                }
+            }
+        }
+        
+        for (int i = 0; i < ticks; i++) {
+            if (seed != null) {
+                stockService.updateAllNAVs(seed + i);
+            } else {
+                stockService.updateAllNAVs();
+            }
+        }
+        
+        InferenceBackend backend = endpoint != null ? new HttpInferenceBackend(URI.create(endpoint))
+                                                    : new LocalInferenceBackend();
+        GeminiAIService aiService = new GeminiAIService(Runtime.getRuntime().availableProcessors(),
+                                                        new PredictionCache(), backend);
+        List<Stock> stocks = stockService.getAllStocks();
+        List<PredictionResult> results;
+        try {
+            results = aiService.predictAll(stocks);
+        } finally {
+            if (!quickExit) {
+                aiService.shutdown();
+            }
+        }
+        
+        OutputStream stream = outFile != null ? Files.newOutputStream(Paths.get(outFile)) : System.out;
+        Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+        PrintWriter out = new PrintWriter(writer);
+        out.println(HEADER);
+        for (int i = 0; i < stocks.size(); i++) {
+            writeRow(out, stocks.get(i), results.get(i));
+        }
+        if (outFile != null) {
+            out.close();
+        } else {
+            out.flush();
+        }
+        // PrintWriter swallows write errors, e.g. a full disk; they only show up here
+        if (out.checkError()) {
+            throw new IOException("Could not write results to " + (outFile != null ? outFile : "standard output"));
+        }
+        
+        System.err.printf(Locale.ROOT, "%s | scored in %.0f ms%n",
+                          stockService.getMarketSummary(), (System.nanoTime() - start) / 1e6);
+        return errors == 0 ? 0 : 1;
+    }
+    
+    private static void addStock(StockService stockService, String[] fields) {
+        if (fields.length < 2 || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
+            throw new IllegalArgumentException("Expected name,symbol[,buyThreshold,sellThreshold]");
+        }
+        double buyThreshold = fields.length > 2 && !fields[2].trim().isEmpty() ? parse(fields[2]) : 0;
+        double sellThreshold = fields.length > 3 && !fields[3].trim().isEmpty() ? parse(fields[3]) : 0;
+        
+        Stock stock = stockService.addStock(fields[0].trim(), fields[1].trim().toUpperCase(Locale.ROOT));
+        stock.setBuyThreshold(buyThreshold);
+        stock.setSellThreshold(sellThreshold);
+    }
+    
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid threshold: " + value.trim());
+        }
+    }
+    
+    private static void writeRow(PrintWriter out, Stock stock, PredictionResult result) {
+        out.printf(Locale.ROOT, "%s,%s,%.2f,%.2f,%.2f,%s,%.2f,%.2f,%d,%s,%s,%s%n",
+                   stock.getSymbol(), quote(stock.getName()), stock.getCurrentNAV(),
+                   stock.getBuyThreshold(), stock.getSellThreshold(), stock.getRecommendation(),
+                   result.getPredictedNAV(), result.getExpectedChangePercent(), result.getConfidence(),
+                   result.getSignal(), result.getTrend(), result.getRiskBand());
+    }
+    
+    private static String quote(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -7,10 +7,19 @@ import javax.swing.UIManager;
 /**
  * Main application class for Stock Manager
  * Simple Java Swing application for stock portfolio management
+ * With --batch it runs headless instead; see BatchRunner.
  */
 public class StockManagerApp {
     
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].startsWith("--")) {
+            // Decide before touching any Swing class so batch runs never load AWT
+            System.exit(BatchRunner.run(args));
+        }
+        startGui();
+    }
+    
+    private static void startGui() {
         // Start the application on EDT
         SwingUtilities.invokeLater(() -> {
             new LoginFrame().setVisible(true);
@@ -0,0 +1,31 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Off-heap home for the older ticks of one NAV history
+ * Ticks are addressed by their index in the history and only ever written
+ * past the end of what is held, never rewritten; since history never
+ * changes, spilled ticks stay valid after they have been reloaded onto
+ * the heap. Ranges skipped by a write belong to trimmed ticks and are
+ * never read.
+ */
+public interface HistorySpill {
+    
+    /** One past the index of the newest tick held */
+    int size();
+    
+    /**
+     * Store ticks navs[from, to) and timestamps[from, to) as history ticks
+     * index, index + 1, ...; index is never below size()
+     */
+    void write(int index, double[] navs, long[] timestamps, int from, int to) throws IOException;
+    
+    /**
+     * Copy held ticks [from, to) into the arrays starting at offset
+     */
+    void read(int from, int to, double[] navs, long[] timestamps, int offset) throws IOException;
+    
+    /** Bytes used outside the heap */
+    long getBytes();
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Range min/max index over a NAV history
+ * Ticks are grouped into blocks of 64 by their index in append order, and
+ * a segment tree over the blocks holds each node's min and max, so only
+ * about one byte per tick is added. An append updates its block's leaf and
+ * walks up while a parent changes, O(log n) worst case. A query combines
+ * O(log n) nodes for the whole blocks in the range with a scan of at most
+ * two partial blocks from the ticks themselves.
+ *
+ * Nodes whose blocks are complete never change again and growth copies
+ * into a fresh tree, so a Tree captured with a snapshot answers queries
+ * over that snapshot without locking. The owning NAVHistory serializes
+ * appends.
+ */
+final class MinMaxIndex {
+    static final int BLOCK_SHIFT = 6;
+    static final int BLOCK_TICKS = 1 << BLOCK_SHIFT;
+    private static final int INITIAL_LEAVES = 1;
+    
+    private Tree tree = new Tree(INITIAL_LEAVES);
+    
+    /**
+     * Fold the tick with the given index into its block
+     */
+    void add(int tick, double nav) {
+        int block = tick >>> BLOCK_SHIFT;
+        if (block >= tree.leaves) {
+            tree = tree.grow(block + 1);
+        }
+        Tree t = tree;
+        int node = t.leaves + block;
+        if ((tick & (BLOCK_TICKS - 1)) == 0) {
+            t.mins[node] = nav;
+            t.maxs[node] = nav;
+        } else if (nav < t.mins[node]) {
+            t.mins[node] = nav;
+        } else if (nav > t.maxs[node]) {
+            t.maxs[node] = nav;
+        } else {
+            return;
+        }
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            double min = Math.min(t.mins[2 * node], t.mins[2 * node + 1]);
+            double max = Math.max(t.maxs[2 * node], t.maxs[2 * node + 1]);
+            if (min == t.mins[node] && max == t.maxs[node]) {
+                break; // Ancestors already agree
+            }
+            t.mins[node] = min;
+            t.maxs[node] = max;
+        }
+    }
+    
+    Tree tree() { return tree; }
+    
+    long getMemoryUsage() {
+        return (long) tree.mins.length * 2 * Double.BYTES;
+    }
+    
+    /**
+     * Implicit segment tree: node 1 is the root, node i has children 2i and
+     * 2i + 1, and block b is leaf leaves + b. Unused leaves hold +/-infinity.
+     */
+    static final class Tree {
+        final int leaves;
+        final double[] mins;
+        final double[] maxs;
+        
+        Tree(int leaves) {
+            this.leaves = leaves;
+            this.mins = new double[2 * leaves];
+            this.maxs = new double[2 * leaves];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+        
+        // Copy the leaves into a tree with room for minBlocks and rebuild the inner nodes
+        Tree grow(int minBlocks) {
+            int capacity = leaves;
+            while (capacity < minBlocks) {
+                capacity <<= 1;
+            }
+            Tree grown = new Tree(capacity);
+            System.arraycopy(mins, leaves, grown.mins, capacity, leaves);
+            System.arraycopy(maxs, leaves, grown.maxs, capacity, leaves);
+            for (int node = capacity - 1; node > 0; node--) {
+                grown.mins[node] = Math.min(grown.mins[2 * node], grown.mins[2 * node + 1]);
+                grown.maxs[node] = Math.max(grown.maxs[2 * node], grown.maxs[2 * node + 1]);
+            }
+            return grown;
+        }
+        
+        /** Smallest NAV over whole blocks [fromBlock, toBlock) */
+        double min(int fromBlock, int toBlock) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int l = fromBlock + leaves, r = toBlock + leaves; l < r; l >>>= 1, r >>>= 1) {
+                if ((l & 1) == 1) {
+                    min = Math.min(min, mins[l++]);
+                }
+                if ((r & 1) == 1) {
+                    min = Math.min(min, mins[--r]);
+                }
+            }
+            return min;
+        }
+        
+        /** Largest NAV over whole blocks [fromBlock, toBlock) */
+        double max(int fromBlock, int toBlock) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int l = fromBlock + leaves, r = toBlock + leaves; l < r; l >>>= 1, r >>>= 1) {
+                if ((l & 1) == 1) {
+                    max = Math.max(max, maxs[l++]);
+                }
+                if ((r & 1) == 1) {
+                    max = Math.max(max, maxs[--r]);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Columnar NAV history store.
+ * Prices and epoch-millis timestamps are kept in parallel primitive arrays,
+ * so a tick costs 16 bytes instead of a NAVRecord plus its LocalDateTime.
+ * NAVRecord objects are only materialized when a caller asks for one.
+ * Running statistics (first/last, min/max, Welford mean and variance of
+ * tick-to-tick changes, mean absolute change) and OHLC bars at every
+ * Resolution are updated in O(1) per append, and a MinMaxIndex for range
+ * min/max queries in O(log n).
+ *
+ * Appends take a StampedLock write lock; reads are optimistic and only fall
+ * back to the read lock if an append raced with them. Appends never touch
+ * slots below the published size, so a snapshot stays valid after later
+ * appends, and growth copies into fresh arrays.
+ *
+ * The oldest ticks can be moved to a HistorySpill, leaving only a recent
+ * window on the heap; the arrays then start at tick heapStart. Appends,
+ * statistics and the latest tick never need the spilled part, and the
+ * first snapshot() after a spill transparently reloads it.
+ *
+ * Raw ticks older than a cutoff can be dropped with trimBefore() once the
+ * bars hold them; indices always count from the oldest retained tick, while
+ * statistics and bars keep covering every tick ever appended.
+ */
+public class NAVHistory {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+    
+    /** Bytes used per tick by the columnar layout (one double + one long) */
+    public static final int BYTES_PER_TICK = Double.BYTES + Long.BYTES;
+    
+    // Ticks are numbered from 0 in append order; [trimmed, size) are retained
+    private double[] navs;
+    private long[] timestamps;
+    private int size;
+    private int trimmed;
+    private long oldestTimestamp = Long.MIN_VALUE;
+    
+    // Ticks [trimmed, heapStart) live only in the spill; navs[0] is tick heapStart
+    private HistorySpill spill;
+    private int heapStart;
+    private final Object spillLock = new Object();
+    private volatile long lastAccessNanos = System.nanoTime();
+    
+    // Running statistics over every tick, trimmed ones included
+    private int tickCount;
+    private double firstNav;
+    private double lastNav;
+    private double minNav = Double.POSITIVE_INFINITY;
+    private double maxNav = Double.NEGATIVE_INFINITY;
+    private double meanChange;
+    private double changeM2;
+    private double absChangeSum;
+    
+    private final OHLCBars[] bars;
+    private final MinMaxIndex minMaxIndex = new MinMaxIndex();
+    
+    private final StampedLock lock = new StampedLock();
+    
+    public NAVHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    public NAVHistory(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.navs = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.size = 0;
+        this.bars = emptyBars();
+    }
+    
+    /**
+     * Adopt already-filled arrays holding size ticks, e.g. from a snapshot;
+     * statistics and bars are rebuilt in one pass and the arrays are not copied
+     */
+    public NAVHistory(double[] navs, long[] timestamps, int size) {
+        if (size > navs.length || size > timestamps.length) {
+            throw new IllegalArgumentException("Size " + size + " exceeds the supplied arrays");
+        }
+        this.navs = navs.length == 0 ? new double[1] : navs;
+        this.timestamps = timestamps.length == 0 ? new long[1] : timestamps;
+        this.bars = emptyBars();
+        for (int i = 0; i < size; i++) {
+            record(navs[i], timestamps[i]);
+        }
+    }
+    
+    /**
+     * Adopt already-filled arrays holding the retained ticks together with
+     * the statistics and bars saved alongside them, which may also cover
+     * ticks trimmed before the save; bars are indexed by Resolution ordinal
+     */
+    public NAVHistory(double[] navs, long[] timestamps, int size, NAVStatistics statistics, OHLCBars[] bars) {
+        if (size > navs.length || size > timestamps.length) {
+            throw new IllegalArgumentException("Size " + size + " exceeds the supplied arrays");
+        }
+        if (bars.length != RESOLUTIONS.length) {
+            throw new IllegalArgumentException("Expected bars for " + RESOLUTIONS.length + " resolutions");
+        }
+        for (int i = 0; i < bars.length; i++) {
+            if (bars[i].getResolution() != RESOLUTIONS[i]) {
+                throw new IllegalArgumentException("Bars out of order at " + RESOLUTIONS[i]);
+            }
+        }
+        if (statistics.getCount() < size) {
+            throw new IllegalArgumentException("Statistics cover fewer ticks than the history holds");
+        }
+        this.navs = navs.length == 0 ? new double[1] : navs;
+        this.timestamps = timestamps.length == 0 ? new long[1] : timestamps;
+        this.size = size;
+        this.oldestTimestamp = size > 0 ? timestamps[0] : Long.MIN_VALUE;
+        this.bars = bars.clone();
+        for (int i = 0; i < size; i++) {
+            minMaxIndex.add(i, navs[i]);
+        }
+        
+        int changes = statistics.getCount() - 1;
+        this.tickCount = statistics.getCount();
+        if (tickCount > 0) {
+            this.firstNav = statistics.getFirstNav();
+            this.lastNav = statistics.getLastNav();
+            this.minNav = statistics.getMinNav();
+            this.maxNav = statistics.getMaxNav();
+        }
+        if (changes > 0) {
+            this.meanChange = statistics.getMeanChange();
+            this.changeM2 = statistics.getChangeVariance() * Math.max(0, changes - 1);
+            this.absChangeSum = statistics.getMeanAbsoluteChange() * changes;
+        }
+    }
+    
+    private static OHLCBars[] emptyBars() {
+        OHLCBars[] empty = new OHLCBars[RESOLUTIONS.length];
+        for (int i = 0; i < empty.length; i++) {
+            empty[i] = new OHLCBars(RESOLUTIONS[i]);
+        }
+        return empty;
+    }
+    
+    /**
+     * Append a tick, growing the arrays by 1.5x when full (amortized O(1))
+     */
+    public void append(double nav, long epochMillis) {
+        long stamp = lock.writeLock();
+        try {
+            if (size - heapStart == navs.length) {
+                grow(size - heapStart + 1);
+            }
+            record(nav, epochMillis);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Append ticks navs[from, to) and timestamps[from, to) under a single
+     * lock acquisition and at most one grow
+     */
+    public void appendAll(double[] navValues, long[] epochMillis, int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (size - heapStart + count > navs.length) {
+                grow(size - heapStart + count);
+            }
+            for (int i = from; i < to; i++) {
+                record(navValues[i], epochMillis[i]);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    // Caller holds the write lock and has made room for the tick
+    private void record(double nav, long epochMillis) {
+        updateStatistics(nav);
+        for (OHLCBars resolutionBars : bars) {
+            resolutionBars.add(nav, epochMillis);
+        }
+        minMaxIndex.add(size, nav);
+        navs[size - heapStart] = nav;
+        timestamps[size - heapStart] = epochMillis;
+        if (size == trimmed) {
+            oldestTimestamp = epochMillis;
+        }
+        size++;
+    }
+    
+    private void updateStatistics(double nav) {
+        minNav = Math.min(minNav, nav);
+        maxNav = Math.max(maxNav, nav);
+        if (tickCount == 0) {
+            firstNav = nav;
+        } else {
+            double change = nav - lastNav;
+            int changes = tickCount; // Number of deltas including this one
+            double delta = change - meanChange;
+            meanChange += delta / changes;
+            changeM2 += delta * (change - meanChange);
+            absChangeSum += Math.abs(change);
+        }
+        lastNav = nav;
+        tickCount++;
+    }
+    
+    private void grow(int minCapacity) {
+        int newCapacity = navs.length + (navs.length >> 1);
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+        navs = Arrays.copyOf(navs, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+    }
+    
+    /** Number of retained ticks */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int n = size - trimmed;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                n = size - trimmed;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return n;
+    }
+    
+    public boolean isEmpty() { return size() == 0; }
+    
+    public double getNav(int index) {
+        return snapshot().getNav(index);
+    }
+    
+    public long getTimestamp(int index) {
+        return snapshot().getTimestamp(index);
+    }
+    
+    /**
+     * Timestamp of the newest tick, Long.MIN_VALUE if there is none;
+     * never reloads spilled ticks
+     */
+    public long getLastTimestamp() {
+        long stamp = lock.readLock();
+        try {
+            return size == trimmed ? Long.MIN_VALUE : timestamps[size - heapStart - 1];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Timestamp of the oldest retained tick, Long.MIN_VALUE if there is none;
+     * never reloads spilled ticks
+     */
+    public long getOldestTimestamp() {
+        long stamp = lock.readLock();
+        try {
+            return size == trimmed ? Long.MIN_VALUE : oldestTimestamp;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Materialize a single tick as a NAVRecord
+     */
+    public NAVRecord getRecord(int index) {
+        return snapshot().getRecord(index);
+    }
+    
+    /**
+     * Zero-copy read-only view of the retained ticks; reloads spilled
+     * ticks first and counts as an access for eviction
+     */
+    public NAVSeries snapshot() {
+        lastAccessNanos = System.nanoTime();
+        long stamp = lock.tryOptimisticRead();
+        double[] n = navs;
+        long[] t = timestamps;
+        int s = size;
+        int p = heapStart;
+        int first = trimmed;
+        MinMaxIndex.Tree index = minMaxIndex.tree();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                n = navs;
+                t = timestamps;
+                s = size;
+                p = heapStart;
+                first = trimmed;
+                index = minMaxIndex.tree();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (p > first) {
+            return reload();
+        }
+        return new NAVSeries(n, t, 0, s - p, index, p);
+    }
+    
+    /**
+     * Smallest and largest NAV of retained ticks [fromIndex, toIndex) in
+     * O(log n); reloads spilled ticks like snapshot()
+     */
+    public NAVRange minMax(int fromIndex, int toIndex) {
+        return snapshot().minMax(fromIndex, toIndex);
+    }
+    
+    /**
+     * Zero-copy view of the OHLC bars at a resolution, covering every tick
+     * appended, trimmed ones included; never reloads spilled ticks
+     */
+    public OHLCSeries getBars(Resolution resolution) {
+        long stamp = lock.readLock();
+        try {
+            return bars[resolution.ordinal()].snapshot();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Copy retained ticks [from, to) into the arrays starting at offset,
+     * reading spilled ticks straight from the spill without reloading them
+     * or counting as an access
+     */
+    public void copyTo(int from, int to, double[] navValues, long[] epochMillis, int offset) throws IOException {
+        image().copyTo(from, to, navValues, epochMillis, offset);
+    }
+    
+    /**
+     * Point-in-time image of the ticks, statistics and bars, e.g. for
+     * persistence; it keeps reading the same ticks after later appends,
+     * spills, reloads and trims
+     */
+    public Image image() {
+        long stamp = lock.readLock();
+        try {
+            OHLCSeries[] views = new OHLCSeries[bars.length];
+            for (int i = 0; i < views.length; i++) {
+                views[i] = bars[i].snapshot();
+            }
+            return new Image(navs, timestamps, spill, trimmed, heapStart, size, readStatistics(), views);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    private NAVSeries reload() {
+        long stamp = lock.writeLock();
+        try {
+            if (heapStart > trimmed) {
+                int retained = size - trimmed;
+                int onHeap = size - heapStart;
+                double[] fullNavs = new double[retained + (retained >> 2) + 1];
+                long[] fullTimestamps = new long[fullNavs.length];
+                spill.read(trimmed, heapStart, fullNavs, fullTimestamps, 0);
+                System.arraycopy(navs, 0, fullNavs, heapStart - trimmed, onHeap);
+                System.arraycopy(timestamps, 0, fullTimestamps, heapStart - trimmed, onHeap);
+                navs = fullNavs;
+                timestamps = fullTimestamps;
+                heapStart = trimmed;
+            }
+            return new NAVSeries(navs, timestamps, 0, size - heapStart, minMaxIndex.tree(), heapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reload spilled NAV history", e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Move all but the newest keepRecent ticks off the heap into the spill.
+     * Ticks the spill already holds from an earlier spill are not written
+     * again. A history only ever spills to one target. Returns the heap
+     * bytes released.
+     */
+    public long spill(HistorySpill target, int keepRecent) throws IOException {
+        int keep = Math.max(1, keepRecent);
+        synchronized (spillLock) {
+            double[] n;
+            long[] t;
+            int cut;
+            int p;
+            long stamp = lock.readLock();
+            try {
+                if (spill != null && spill != target) {
+                    throw new IllegalStateException("History already spills elsewhere");
+                }
+                cut = size - keep;
+                p = heapStart;
+                n = navs;
+                t = timestamps;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            if (cut <= p) {
+                return 0;
+            }
+            
+            // Ticks are immutable once appended, so write them without blocking appends;
+            // anything between the spill's end and the heap was trimmed and is skipped
+            int from = Math.max(target.size(), p);
+            if (from < cut) {
+                target.write(from, n, t, from - p, cut - p);
+            }
+            
+            stamp = lock.writeLock();
+            try {
+                long before = (long) navs.length * BYTES_PER_TICK;
+                int onHeap = size - cut;
+                int capacity = Math.max(DEFAULT_CAPACITY, onHeap + (onHeap >> 1));
+                double[] recentNavs = new double[capacity];
+                long[] recentTimestamps = new long[capacity];
+                System.arraycopy(navs, cut - heapStart, recentNavs, 0, onHeap);
+                System.arraycopy(timestamps, cut - heapStart, recentTimestamps, 0, onHeap);
+                navs = recentNavs;
+                timestamps = recentTimestamps;
+                spill = target;
+                heapStart = cut;
+                return before - (long) capacity * BYTES_PER_TICK;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+    
+    /**
+     * Drop retained ticks stamped before cutoffMillis, always keeping the
+     * newest one. Their bars and statistics stay; heap copies are released
+     * and spilled copies are never read again. Timestamps are expected to
+     * be non-decreasing. Returns the number of ticks dropped.
+     */
+    public int trimBefore(long cutoffMillis) throws IOException {
+        synchronized (spillLock) {
+            double[] n;
+            long[] t;
+            HistorySpill source;
+            int first;
+            int end;
+            int p;
+            long stamp = lock.readLock();
+            try {
+                if (size - trimmed <= 1 || oldestTimestamp >= cutoffMillis) {
+                    return 0;
+                }
+                n = navs;
+                t = timestamps;
+                source = spill;
+                first = trimmed;
+                end = size;
+                p = heapStart;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            
+            // First tick at or after the cutoff, searched over [first, end - 1]
+            double[] navScratch = new double[1];
+            long[] timeScratch = new long[1];
+            int low = first;
+            int high = end - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestampAt(mid, t, p, source, navScratch, timeScratch) < cutoffMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int cut = low;
+            if (cut == first) {
+                return 0;
+            }
+            long cutTimestamp = timestampAt(cut, t, p, source, navScratch, timeScratch);
+            
+            stamp = lock.writeLock();
+            try {
+                if (cut > heapStart) {
+                    // Fresh arrays, since snapshots may still share the old ones
+                    int onHeap = size - cut;
+                    int capacity = Math.max(DEFAULT_CAPACITY, onHeap + (onHeap >> 1));
+                    double[] keptNavs = new double[capacity];
+                    long[] keptTimestamps = new long[capacity];
+                    System.arraycopy(navs, cut - heapStart, keptNavs, 0, onHeap);
+                    System.arraycopy(timestamps, cut - heapStart, keptTimestamps, 0, onHeap);
+                    navs = keptNavs;
+                    timestamps = keptTimestamps;
+                    heapStart = cut;
+                }
+                trimmed = cut;
+                oldestTimestamp = cutTimestamp;
+                return cut - first;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+    
+    private static long timestampAt(int tick, long[] heapTimestamps, int heapStart, HistorySpill source,
+                                    double[] navScratch, long[] timeScratch) throws IOException {
+        if (tick >= heapStart) {
+            return heapTimestamps[tick - heapStart];
+        }
+        source.read(tick, tick + 1, navScratch, timeScratch, 0);
+        return timeScratch[0];
+    }
+    
+    /** Number of leading retained ticks currently held only by the spill */
+    public int getSpilledCount() {
+        long stamp = lock.readLock();
+        try {
+            return heapStart - trimmed;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /** Ticks dropped by trimBefore() over the life of this history */
+    public int getTrimmedCount() {
+        long stamp = lock.readLock();
+        try {
+            return trimmed;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /** System.nanoTime() of the last snapshot(), or of creation */
+    public long getLastAccessNanos() { return lastAccessNanos; }
+    
+    /**
+     * Snapshot of the running statistics, O(1)
+     */
+    public NAVStatistics getStatistics() {
+        long stamp = lock.tryOptimisticRead();
+        NAVStatistics statistics = readStatistics();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                statistics = readStatistics();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return statistics;
+    }
+    
+    // May see torn values under an optimistic stamp; only used once validated
+    private NAVStatistics readStatistics() {
+        int n = tickCount;
+        if (n == 0) {
+            return new NAVStatistics(0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        int changes = n - 1;
+        return new NAVStatistics(n, firstNav, lastNav, minNav, maxNav,
+                                 meanChange,
+                                 changes > 1 ? changeM2 / (changes - 1) : 0,
+                                 changes > 0 ? absChangeSum / changes : 0);
+    }
+    
+    /**
+     * Approximate heap bytes held by the backing arrays, bars and index included
+     */
+    public long getMemoryUsage() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = (long) navs.length * Double.BYTES + (long) timestamps.length * Long.BYTES;
+            for (OHLCBars resolutionBars : bars) {
+                bytes += resolutionBars.getMemoryUsage();
+            }
+            return bytes + minMaxIndex.getMemoryUsage();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Immutable capture of a history taken by image()
+     * Heap ticks are read from the arrays current at capture time, which
+     * later changes replace rather than modify, and spilled ticks from the
+     * spill, which never rewrites a tick it holds.
+     */
+    public static final class Image {
+        private final double[] navs;
+        private final long[] timestamps;
+        private final HistorySpill spill;
+        private final int first;
+        private final int heapStart;
+        private final int end;
+        private final NAVStatistics statistics;
+        private final OHLCSeries[] bars;
+        
+        Image(double[] navs, long[] timestamps, HistorySpill spill, int first, int heapStart, int end,
+              NAVStatistics statistics, OHLCSeries[] bars) {
+            this.navs = navs;
+            this.timestamps = timestamps;
+            this.spill = spill;
+            this.first = first;
+            this.heapStart = heapStart;
+            this.end = end;
+            this.statistics = statistics;
+            this.bars = bars;
+        }
+        
+        /** Number of retained ticks */
+        public int size() { return end - first; }
+        
+        public NAVStatistics getStatistics() { return statistics; }
+        
+        public OHLCSeries getBars(Resolution resolution) { return bars[resolution.ordinal()]; }
+        
+        /**
+         * Copy retained ticks [from, to) into the arrays starting at offset
+         */
+        public void copyTo(int from, int to, double[] navValues, long[] epochMillis, int offset) throws IOException {
+            if (from < 0 || to > size() || from > to) {
+                throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside size " + size());
+            }
+            int start = first + from;
+            int stop = first + to;
+            int split = Math.max(start, Math.min(stop, heapStart));
+            if (split > start) {
+                spill.read(start, split, navValues, epochMillis, offset);
+            }
+            if (stop > split) {
+                System.arraycopy(navs, split - heapStart, navValues, offset + split - start, stop - split);
+                System.arraycopy(timestamps, split - heapStart, epochMillis, offset + split - start, stop - split);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Smallest and largest NAV over a range of ticks
+ */
+public class NAVRange {
+    private final double min;
+    private final double max;
+    
+    public NAVRange(double min, double max) {
+        this.min = min;
+        this.max = max;
+    }
+    
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    
+    /** Width of the range, 0 for a flat one */
+    public double getSpread() { return max - min; }
+}
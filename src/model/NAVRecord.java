@@ -1,6 +1,8 @@
 package model;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -15,6 +17,13 @@ public class NAVRecord {
         this.timestamp = timestamp;
     }
     
+    /**
+     * Create a record from an epoch-millis timestamp in the system time zone
+     */
+    public NAVRecord(double nav, long epochMillis) {
+        this(nav, LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+    
     public double getNav() { return nav; }
     public LocalDateTime getTimestamp() { return timestamp; }
     
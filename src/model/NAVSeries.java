@@ -0,0 +1,160 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only, non-copying window over a NAV history.
+ * A series shares the backing arrays of its NAVHistory; appends only ever
+ * write past the end of a published window, so a series stays valid and
+ * unchanged after it has been handed out. Range min/max queries go through
+ * the history's MinMaxIndex as it was when the series was taken.
+ */
+public class NAVSeries {
+    private final double[] navs;
+    private final long[] timestamps;
+    private final int offset;
+    private final int size;
+    private final MinMaxIndex.Tree index;
+    private final int firstTick; // Index of element 0 in the history's append order
+    
+    NAVSeries(double[] navs, long[] timestamps, int offset, int size, MinMaxIndex.Tree index, int firstTick) {
+        this.navs = navs;
+        this.timestamps = timestamps;
+        this.offset = offset;
+        this.size = size;
+        this.index = index;
+        this.firstTick = firstTick;
+    }
+    
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    
+    public double getNav(int index) {
+        checkIndex(index);
+        return navs[offset + index];
+    }
+    
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[offset + index];
+    }
+    
+    /**
+     * Materialize a single tick as a NAVRecord
+     */
+    public NAVRecord getRecord(int index) {
+        checkIndex(index);
+        return new NAVRecord(navs[offset + index], timestamps[offset + index]);
+    }
+    
+    public double getFirstNav() { return getNav(0); }
+    public double getLastNav() { return getNav(size - 1); }
+    
+    /**
+     * Sub-window by position, fromIndex inclusive and toIndex exclusive
+     */
+    public NAVSeries subSeries(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") outside size " + size);
+        }
+        return new NAVSeries(navs, timestamps, offset + fromIndex, toIndex - fromIndex, index, firstTick + fromIndex);
+    }
+    
+    /**
+     * Smallest and largest NAV of ticks [fromIndex, toIndex), O(log n):
+     * whole 64-tick blocks come from the index, the partial blocks at either
+     * end are scanned
+     */
+    public NAVRange minMax(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex >= toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") outside size " + size
+                                                + " or empty");
+        }
+        int fromBlock = (firstTick + fromIndex + MinMaxIndex.BLOCK_TICKS - 1) >>> MinMaxIndex.BLOCK_SHIFT;
+        int toBlock = (firstTick + toIndex) >>> MinMaxIndex.BLOCK_SHIFT;
+        if (fromBlock >= toBlock) {
+            return scan(fromIndex, toIndex, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+        }
+        
+        double min = index.min(fromBlock, toBlock);
+        double max = index.max(fromBlock, toBlock);
+        int wholeFrom = (fromBlock << MinMaxIndex.BLOCK_SHIFT) - firstTick;
+        int wholeTo = (toBlock << MinMaxIndex.BLOCK_SHIFT) - firstTick;
+        for (int i = offset + fromIndex; i < offset + wholeFrom; i++) {
+            min = Math.min(min, navs[i]);
+            max = Math.max(max, navs[i]);
+        }
+        return scan(wholeTo, toIndex, min, max);
+    }
+    
+    private NAVRange scan(int fromIndex, int toIndex, double min, double max) {
+        for (int i = offset + fromIndex; i < offset + toIndex; i++) {
+            min = Math.min(min, navs[i]);
+            max = Math.max(max, navs[i]);
+        }
+        return new NAVRange(min, max);
+    }
+    
+    /**
+     * Ticks with fromMillis <= timestamp < toMillis, located by binary search.
+     * Timestamps are expected to be non-decreasing, as produced by appends.
+     */
+    public NAVSeries range(long fromMillis, long toMillis) {
+        if (toMillis <= fromMillis) {
+            return subSeries(0, 0);
+        }
+        int from = lowerBound(fromMillis);
+        int to = lowerBound(toMillis);
+        return subSeries(from, to);
+    }
+    
+    /**
+     * Ticks with from <= timestamp < to, in the system time zone
+     */
+    public NAVSeries range(LocalDateTime from, LocalDateTime to) {
+        ZoneId zone = ZoneId.systemDefault();
+        return range(from.atZone(zone).toInstant().toEpochMilli(), to.atZone(zone).toInstant().toEpochMilli());
+    }
+    
+    /**
+     * Index of the first tick whose timestamp is >= epochMillis, or size() if none
+     */
+    public int lowerBound(long epochMillis) {
+        int low = offset;
+        int high = offset + size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - offset;
+    }
+    
+    /**
+     * Read-only List view that materializes NAVRecord objects on access
+     */
+    public List<NAVRecord> asList() {
+        return new RecordList();
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+    
+    private class RecordList extends AbstractList<NAVRecord> implements RandomAccess {
+        @Override
+        public NAVRecord get(int index) { return getRecord(index); }
+        
+        @Override
+        public int size() { return size; }
+    }
+}
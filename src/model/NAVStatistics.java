@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Immutable snapshot of the running statistics kept by a NAVHistory
+ * Change statistics are over tick-to-tick deltas (count - 1 of them).
+ */
+public class NAVStatistics {
+    private final int count;
+    private final double firstNav;
+    private final double lastNav;
+    private final double minNav;
+    private final double maxNav;
+    private final double meanChange;
+    private final double changeVariance;
+    private final double meanAbsoluteChange;
+    
+    public NAVStatistics(int count, double firstNav, double lastNav, double minNav, double maxNav,
+                         double meanChange, double changeVariance, double meanAbsoluteChange) {
+        this.count = count;
+        this.firstNav = firstNav;
+        this.lastNav = lastNav;
+        this.minNav = minNav;
+        this.maxNav = maxNav;
+        this.meanChange = meanChange;
+        this.changeVariance = changeVariance;
+        this.meanAbsoluteChange = meanAbsoluteChange;
+    }
+    
+    public int getCount() { return count; }
+    public double getFirstNav() { return firstNav; }
+    public double getLastNav() { return lastNav; }
+    public double getMinNav() { return minNav; }
+    public double getMaxNav() { return maxNav; }
+    public double getMeanChange() { return meanChange; }
+    public double getChangeVariance() { return changeVariance; }
+    public double getChangeStdDev() { return Math.sqrt(changeVariance); }
+    public double getMeanAbsoluteChange() { return meanAbsoluteChange; }
+    
+    /**
+     * Percentage change from the first to the last NAV
+     */
+    public double getTotalChangePercent() {
+        return ((lastNav - firstNav) / firstNav) * 100;
+    }
+}
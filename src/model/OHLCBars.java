@@ -0,0 +1,158 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Columnar open/high/low/close bars of one resolution, built tick by tick
+ * Bar starts, prices and tick counts live in parallel primitive arrays.
+ * A tick in the newest bar's interval updates it in place, a later one
+ * opens a new bar, both O(1); a late tick for an older interval copies
+ * the arrays first, so published OHLCSeries views never change under
+ * their readers. The owning NAVHistory serializes all access.
+ */
+public final class OHLCBars {
+    private static final long[] NO_STARTS = new long[0];
+    private static final double[] NO_PRICES = new double[0];
+    private static final int[] NO_COUNTS = new int[0];
+    private static final int INITIAL_CAPACITY = 4;
+    
+    /** Bytes used per bar by the columnar layout */
+    public static final int BYTES_PER_BAR = Long.BYTES + 4 * Double.BYTES + Integer.BYTES;
+    
+    private final Resolution resolution;
+    private long[] starts;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private int[] counts;
+    private int size;
+    
+    OHLCBars(Resolution resolution) {
+        this(resolution, NO_STARTS, NO_PRICES, NO_PRICES, NO_PRICES, NO_PRICES, NO_COUNTS, 0);
+    }
+    
+    /**
+     * Adopt already-filled arrays holding size bars in start order, e.g.
+     * from a snapshot; the arrays are not copied
+     */
+    public OHLCBars(Resolution resolution, long[] starts, double[] opens, double[] highs,
+                    double[] lows, double[] closes, int[] counts, int size) {
+        if (size > starts.length || size > opens.length || size > highs.length
+                || size > lows.length || size > closes.length || size > counts.length) {
+            throw new IllegalArgumentException("Size " + size + " exceeds the supplied arrays");
+        }
+        this.resolution = resolution;
+        this.starts = starts;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.counts = counts;
+        this.size = size;
+    }
+    
+    public Resolution getResolution() { return resolution; }
+    
+    /**
+     * Fold one tick into its bar
+     */
+    void add(double nav, long epochMillis) {
+        int last = size - 1;
+        if (last >= 0 && epochMillis - starts[last] < resolution.getMillis() && epochMillis >= starts[last]) {
+            highs[last] = Math.max(highs[last], nav);
+            lows[last] = Math.min(lows[last], nav);
+            closes[last] = nav;
+            counts[last]++;
+            return; // Common case, no division needed
+        }
+        long start = resolution.barStart(epochMillis);
+        if (last < 0 || start > starts[last]) {
+            if (size == starts.length) {
+                resize(Math.max(INITIAL_CAPACITY, size + (size >> 1)));
+            }
+            starts[size] = start;
+            opens[size] = nav;
+            highs[size] = nav;
+            lows[size] = nav;
+            closes[size] = nav;
+            counts[size] = 1;
+            size++;
+        } else {
+            addLate(nav, start);
+        }
+    }
+    
+    // Out-of-order tick: fresh arrays keep published views unchanged
+    private void addLate(double nav, long start) {
+        int index = Arrays.binarySearch(starts, 0, size, start);
+        if (index >= 0) {
+            resize(starts.length);
+            highs[index] = Math.max(highs[index], nav);
+            lows[index] = Math.min(lows[index], nav);
+            counts[index]++;
+            return; // Open and close belong to the ticks that arrived in order
+        }
+        
+        int insert = -index - 1;
+        long[] newStarts = new long[Math.max(INITIAL_CAPACITY, size + 1 + (size >> 1))];
+        double[] newOpens = new double[newStarts.length];
+        double[] newHighs = new double[newStarts.length];
+        double[] newLows = new double[newStarts.length];
+        double[] newCloses = new double[newStarts.length];
+        int[] newCounts = new int[newStarts.length];
+        System.arraycopy(starts, 0, newStarts, 0, insert);
+        System.arraycopy(opens, 0, newOpens, 0, insert);
+        System.arraycopy(highs, 0, newHighs, 0, insert);
+        System.arraycopy(lows, 0, newLows, 0, insert);
+        System.arraycopy(closes, 0, newCloses, 0, insert);
+        System.arraycopy(counts, 0, newCounts, 0, insert);
+        System.arraycopy(starts, insert, newStarts, insert + 1, size - insert);
+        System.arraycopy(opens, insert, newOpens, insert + 1, size - insert);
+        System.arraycopy(highs, insert, newHighs, insert + 1, size - insert);
+        System.arraycopy(lows, insert, newLows, insert + 1, size - insert);
+        System.arraycopy(closes, insert, newCloses, insert + 1, size - insert);
+        System.arraycopy(counts, insert, newCounts, insert + 1, size - insert);
+        newStarts[insert] = start;
+        newOpens[insert] = nav;
+        newHighs[insert] = nav;
+        newLows[insert] = nav;
+        newCloses[insert] = nav;
+        newCounts[insert] = 1;
+        starts = newStarts;
+        opens = newOpens;
+        highs = newHighs;
+        lows = newLows;
+        closes = newCloses;
+        counts = newCounts;
+        size++;
+    }
+    
+    private void resize(int capacity) {
+        starts = Arrays.copyOf(starts, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+    
+    int size() { return size; }
+    
+    /**
+     * View of the bars so far; the newest bar is copied because later
+     * ticks keep updating it in place
+     */
+    OHLCSeries snapshot() {
+        if (size == 0) {
+            return new OHLCSeries(resolution, starts, opens, highs, lows, closes, counts, 0, 0, 0, 0, 0, 0, 0);
+        }
+        int last = size - 1;
+        return new OHLCSeries(resolution, starts, opens, highs, lows, closes, counts, 0, size,
+                              opens[last], highs[last], lows[last], closes[last], counts[last]);
+    }
+    
+    long getMemoryUsage() {
+        return (long) starts.length * BYTES_PER_BAR;
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+/**
+ * Read-only, non-copying window over the OHLC bars of one resolution
+ * Shares the arrays of its OHLCBars. Bars before the newest never change
+ * in place, and the newest bar is captured when the view is taken, so a
+ * view stays valid and unchanged after it has been handed out.
+ */
+public class OHLCSeries {
+    private final Resolution resolution;
+    private final long[] starts;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final int[] counts;
+    private final int offset;
+    private final int size;
+    
+    // Newest bar at capture time, by array index
+    private final int newest;
+    private final double newestOpen;
+    private final double newestHigh;
+    private final double newestLow;
+    private final double newestClose;
+    private final int newestCount;
+    
+    OHLCSeries(Resolution resolution, long[] starts, double[] opens, double[] highs, double[] lows,
+               double[] closes, int[] counts, int offset, int size,
+               double newestOpen, double newestHigh, double newestLow, double newestClose, int newestCount) {
+        this(resolution, starts, opens, highs, lows, closes, counts, offset, size, offset + size - 1,
+             newestOpen, newestHigh, newestLow, newestClose, newestCount);
+    }
+    
+    private OHLCSeries(Resolution resolution, long[] starts, double[] opens, double[] highs, double[] lows,
+                       double[] closes, int[] counts, int offset, int size, int newest,
+                       double newestOpen, double newestHigh, double newestLow, double newestClose, int newestCount) {
+        this.resolution = resolution;
+        this.starts = starts;
+        this.opens = opens;
+        this.highs = highs;
+        this.lows = lows;
+        this.closes = closes;
+        this.counts = counts;
+        this.offset = offset;
+        this.size = size;
+        this.newest = newest;
+        this.newestOpen = newestOpen;
+        this.newestHigh = newestHigh;
+        this.newestLow = newestLow;
+        this.newestClose = newestClose;
+        this.newestCount = newestCount;
+    }
+    
+    public Resolution getResolution() { return resolution; }
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    
+    /** Epoch millis at which the bar's interval starts */
+    public long getStart(int index) {
+        return starts[checkIndex(index)];
+    }
+    
+    public double getOpen(int index) {
+        int i = checkIndex(index);
+        return i == newest ? newestOpen : opens[i];
+    }
+    
+    public double getHigh(int index) {
+        int i = checkIndex(index);
+        return i == newest ? newestHigh : highs[i];
+    }
+    
+    public double getLow(int index) {
+        int i = checkIndex(index);
+        return i == newest ? newestLow : lows[i];
+    }
+    
+    public double getClose(int index) {
+        int i = checkIndex(index);
+        return i == newest ? newestClose : closes[i];
+    }
+    
+    /** Number of ticks folded into the bar */
+    public int getTickCount(int index) {
+        int i = checkIndex(index);
+        return i == newest ? newestCount : counts[i];
+    }
+    
+    /**
+     * Sub-window by position, fromIndex inclusive and toIndex exclusive
+     */
+    public OHLCSeries subSeries(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") outside size " + size);
+        }
+        return new OHLCSeries(resolution, starts, opens, highs, lows, closes, counts,
+                              offset + fromIndex, toIndex - fromIndex, newest,
+                              newestOpen, newestHigh, newestLow, newestClose, newestCount);
+    }
+    
+    /**
+     * Bars starting at fromMillis <= start < toMillis, located by binary search
+     */
+    public OHLCSeries range(long fromMillis, long toMillis) {
+        if (toMillis <= fromMillis) {
+            return subSeries(0, 0);
+        }
+        return subSeries(lowerBound(fromMillis), lowerBound(toMillis));
+    }
+    
+    /**
+     * The newest count bars, or all of them if there are fewer
+     */
+    public OHLCSeries last(int count) {
+        return subSeries(Math.max(0, size - count), size);
+    }
+    
+    /**
+     * Index of the first bar starting at or after epochMillis, or size() if none
+     */
+    public int lowerBound(long epochMillis) {
+        int low = offset;
+        int high = offset + size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - offset;
+    }
+    
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return offset + index;
+    }
+}
@@ -0,0 +1,21 @@
+package model;
+
+/**
+ * Threshold-based trading recommendation for a stock
+ */
+public enum Recommendation {
+    BUY, SELL, HOLD;
+    
+    /**
+     * Recommendation for a NAV against the given thresholds (0 means not set)
+     */
+    public static Recommendation of(double nav, double buyThreshold, double sellThreshold) {
+        if (nav <= buyThreshold && buyThreshold > 0) {
+            return BUY;
+        } else if (nav >= sellThreshold && sellThreshold > 0) {
+            return SELL;
+        } else {
+            return HOLD;
+        }
+    }
+}
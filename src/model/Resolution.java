@@ -0,0 +1,35 @@
+package model;
+
+/**
+ * Bar width for OHLC aggregation
+ * Bars are aligned to multiples of the width since the epoch, so day bars
+ * start at midnight UTC.
+ */
+public enum Resolution {
+    MINUTE("1m", 60_000L),
+    HOUR("1h", 3_600_000L),
+    DAY("1d", 86_400_000L);
+    
+    private final String label;
+    private final long millis;
+    
+    Resolution(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+    
+    public String getLabel() { return label; }
+    public long getMillis() { return millis; }
+    
+    /**
+     * Start of the bar containing the timestamp
+     */
+    public long barStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+    
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,30 +1,63 @@
 package model;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
 /**
  * Represents a stock with NAV history and trading thresholds
+ * Writers synchronize on the stock, so a NAV update, its history append and
+ * the recommendation transition it causes happen as one step. Readers take
+ * no lock: fields are volatile and the history is read through snapshots.
  */
 public class Stock {
-    private String name;
-    private String symbol;
-    private double currentNAV;
-    private List<NAVRecord> navHistory;
-    private double buyThreshold;
-    private double sellThreshold;
+    private final int id;
+    private volatile String name;
+    private volatile String symbol;
+    private volatile double currentNAV;
+    private final NAVHistory navHistory;
+    private volatile double buyThreshold;
+    private volatile double sellThreshold;
+    private volatile Recommendation recommendation;
+    private volatile StockListener listener;
+    private volatile long historyVersion;
     
     public Stock(String name, String symbol) {
+        this(-1, name, symbol);
+    }
+    
+    /**
+     * Create a stock with a registry-assigned instrument id
+     */
+    public Stock(int id, String name, String symbol) {
+        this.id = id;
         this.name = name;
         this.symbol = symbol;
-        this.navHistory = new ArrayList<>();
+        this.navHistory = new NAVHistory();
         this.buyThreshold = 0.0;
         this.sellThreshold = 0.0;
         this.currentNAV = 0.0;
+        this.recommendation = Recommendation.HOLD;
+    }
+    
+    /**
+     * Recreate a persisted stock around an already-built history
+     */
+    public Stock(int id, String name, String symbol, double currentNAV,
+                 double buyThreshold, double sellThreshold, NAVHistory navHistory) {
+        this.id = id;
+        this.name = name;
+        this.symbol = symbol;
+        this.navHistory = navHistory;
+        this.buyThreshold = buyThreshold;
+        this.sellThreshold = sellThreshold;
+        this.currentNAV = currentNAV;
+        this.recommendation = Recommendation.of(currentNAV, buyThreshold, sellThreshold);
     }
     
     // Getters and Setters
+    /** Dense instrument id assigned by StockService, -1 if unregistered */
+    public int getId() { return id; }
+    
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     
@@ -33,35 +66,179 @@ public class Stock {
     
     public double getCurrentNAV() { return currentNAV; }
     public void setCurrentNAV(double currentNAV) { 
-        this.currentNAV = currentNAV; 
-        addNAVRecord(currentNAV);
+        setCurrentNAV(currentNAV, System.currentTimeMillis());
+    }
+    
+    /**
+     * Set the current NAV and record it with the given epoch-millis timestamp
+     */
+    public synchronized void setCurrentNAV(double currentNAV, long epochMillis) {
+        this.currentNAV = currentNAV;
+        addNAVRecord(currentNAV, epochMillis);
+        Recommendation previous = recommendation;
+        updateRecommendation();
+        if (recommendation != previous) {
+            StockListener l = listener;
+            if (l != null) {
+                l.onThresholdCrossed(this, previous, recommendation, currentNAV, epochMillis);
+            }
+        }
+    }
+    
+    /**
+     * Multiply the current NAV by factor and record the result; the read and
+     * the write happen under one lock, so concurrent ticks never lose an update
+     */
+    public synchronized void applyFluctuation(double factor, long epochMillis) {
+        setCurrentNAV(currentNAV * factor, epochMillis);
     }
     
-    public List<NAVRecord> getNavHistory() { return new ArrayList<>(navHistory); }
+    /**
+     * Read-only view of the NAV history; records are materialized on access
+     */
+    public List<NAVRecord> getNavHistory() { return navHistory.snapshot().asList(); }
+    
+    /**
+     * Zero-copy primitive view of the NAV history, supports range queries
+     */
+    public NAVSeries getHistory() { return navHistory.snapshot(); }
+    
+    /**
+     * Backing history store; size, latest tick, statistics and copies from
+     * it never reload spilled ticks
+     */
+    public NAVHistory getHistoryStore() { return navHistory; }
+    
+    /**
+     * Running statistics over the NAV history, maintained per tick
+     */
+    public NAVStatistics getStatistics() { return navHistory.getStatistics(); }
+    
+    /**
+     * Zero-copy OHLC bars at a resolution, maintained per tick; they keep
+     * covering ticks after trimHistoryBefore has dropped them
+     */
+    public OHLCSeries getBars(Resolution resolution) { return navHistory.getBars(resolution); }
+    
+    /**
+     * Drop raw ticks stamped before cutoffMillis, keeping their bars and
+     * statistics; returns the number of ticks dropped
+     */
+    public int trimHistoryBefore(long cutoffMillis) throws IOException {
+        int dropped = navHistory.trimBefore(cutoffMillis);
+        if (dropped > 0) {
+            synchronized (this) {
+                historyVersion++;
+            }
+        }
+        return dropped;
+    }
     
     public double getBuyThreshold() { return buyThreshold; }
-    public void setBuyThreshold(double buyThreshold) { this.buyThreshold = buyThreshold; }
+    public synchronized void setBuyThreshold(double buyThreshold) {
+        this.buyThreshold = buyThreshold;
+        updateRecommendation();
+        notifyThresholdsChanged();
+    }
     
     public double getSellThreshold() { return sellThreshold; }
-    public void setSellThreshold(double sellThreshold) { this.sellThreshold = sellThreshold; }
+    public synchronized void setSellThreshold(double sellThreshold) {
+        this.sellThreshold = sellThreshold;
+        updateRecommendation();
+        notifyThresholdsChanged();
+    }
+    
+    /**
+     * Set both thresholds at once; listeners hear about it once
+     */
+    public synchronized void setThresholds(double buyThreshold, double sellThreshold) {
+        this.buyThreshold = buyThreshold;
+        this.sellThreshold = sellThreshold;
+        updateRecommendation();
+        notifyThresholdsChanged();
+    }
+    
+    private void notifyThresholdsChanged() {
+        StockListener l = listener;
+        if (l != null) {
+            l.onThresholdsChanged(this);
+        }
+    }
+    
+    /**
+     * Install the listener notified of recommendation changes (null to detach)
+     */
+    public synchronized void setListener(StockListener listener) { this.listener = listener; }
     
     /**
      * Add a new NAV record with current timestamp
      */
     public void addNAVRecord(double nav) {
-        navHistory.add(new NAVRecord(nav, LocalDateTime.now()));
+        addNAVRecord(nav, System.currentTimeMillis());
     }
     
+    /**
+     * Add a new NAV record with an explicit epoch-millis timestamp
+     */
+    public synchronized void addNAVRecord(double nav, long epochMillis) {
+        navHistory.append(nav, epochMillis);
+        historyVersion++;
+        StockListener l = listener;
+        if (l != null) {
+            l.onTick(this, nav, epochMillis);
+        }
+    }
+    
+    /**
+     * Bulk-append ticks navs[from, to) with their timestamps, e.g. from an
+     * import; the last one becomes the current NAV
+     */
+    public synchronized void appendHistory(double[] navs, long[] epochMillis, int from, int to) {
+        if (to <= from) {
+            return;
+        }
+        navHistory.appendAll(navs, epochMillis, from, to);
+        historyVersion++;
+        StockListener l = listener;
+        if (l != null) {
+            for (int i = from; i < to; i++) {
+                l.onTick(this, navs[i], epochMillis[i]);
+            }
+        }
+        this.currentNAV = navs[to - 1];
+        updateRecommendation();
+    }
+    
+    /**
+     * Monotonically increasing counter bumped on every history append or trim;
+     * lets caches tell whether anything derived from the history is stale
+     */
+    public long getHistoryVersion() { return historyVersion; }
+    
     /**
      * Get recommendation based on current NAV and thresholds
      */
     public String getRecommendation() {
-        if (currentNAV <= buyThreshold && buyThreshold > 0) {
-            return "BUY";
-        } else if (currentNAV >= sellThreshold && sellThreshold > 0) {
-            return "SELL";
-        } else {
-            return "HOLD";
+        return recommendation.name();
+    }
+    
+    /**
+     * Recommendation as an enum; kept up to date on every NAV or threshold change
+     */
+    public Recommendation getRecommendationState() {
+        return recommendation;
+    }
+    
+    // Caller must hold the stock's monitor
+    private void updateRecommendation() {
+        Recommendation previous = recommendation;
+        Recommendation current = Recommendation.of(currentNAV, buyThreshold, sellThreshold);
+        if (current != previous) {
+            recommendation = current;
+            StockListener l = listener;
+            if (l != null) {
+                l.onRecommendationChanged(this, previous, current);
+            }
         }
     }
     
@@ -0,0 +1,32 @@
+package model;
+
+/**
+ * Callback for state changes on a Stock, installed by the owning service
+ */
+public interface StockListener {
+    
+    /**
+     * Called when a NAV or threshold change moves the stock to a new recommendation
+     */
+    void onRecommendationChanged(Stock stock, Recommendation previous, Recommendation current);
+    
+    /**
+     * Called when a live tick moves the stock to a new recommendation, after
+     * onRecommendationChanged; threshold edits and bulk appends do not count
+     */
+    default void onThresholdCrossed(Stock stock, Recommendation previous, Recommendation current,
+                                    double nav, long epochMillis) {
+    }
+    
+    /**
+     * Called for every tick appended to the stock's NAV history
+     */
+    default void onTick(Stock stock, double nav, long epochMillis) {
+    }
+    
+    /**
+     * Called after the buy or sell threshold of the stock was changed
+     */
+    default void onThresholdsChanged(Stock stock) {
+    }
+}
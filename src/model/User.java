@@ -1,30 +1,52 @@
 package model;
 
+import java.security.MessageDigest;
+
 /**
- * Simple user model for authentication
+ * User account for authentication
+ * Only a salted PBKDF2 hash of the password is kept, together with the
+ * iteration count it was derived with. Users are identified by username.
  */
 public class User {
-    private String username;
-    private String password;
+    private final String username;
+    private final byte[] salt;
+    private final byte[] passwordHash;
+    private final int iterations;
     
-    public User(String username, String password) {
+    public User(String username, byte[] salt, byte[] passwordHash, int iterations) {
         this.username = username;
-        this.password = password;
+        this.salt = salt.clone();
+        this.passwordHash = passwordHash.clone();
+        this.iterations = iterations;
     }
     
     public String getUsername() { return username; }
-    public String getPassword() { return password; }
+    public byte[] getSalt() { return salt.clone(); }
+    public byte[] getPasswordHash() { return passwordHash.clone(); }
+    public int getIterations() { return iterations; }
+    
+    /**
+     * Constant-time comparison against a hash derived from this user's salt
+     */
+    public boolean matchesHash(byte[] candidate) {
+        return MessageDigest.isEqual(passwordHash, candidate);
+    }
     
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         User user = (User) obj;
-        return username.equals(user.username) && password.equals(user.password);
+        return username.equals(user.username);
     }
     
     @Override
     public int hashCode() {
-        return username.hashCode() + password.hashCode();
+        return username.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "User[" + username + "]";
     }
 }
@@ -0,0 +1,198 @@
+package service;
+
+import model.Recommendation;
+import model.Stock;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes threshold crossing alerts to subscribers as they happen
+ * Crossings are not searched for: every stock already tracks which band
+ * (BUY, HOLD or SELL) its NAV is in and reports a transition from the tick
+ * that causes it, so detection is O(1) per tick and nothing polls the
+ * portfolio. The owning StockService forwards each live tick's transition
+ * here; threshold edits, imports and replays move the band silently.
+ *
+ * Each subscription has its own bounded queue and daemon delivery thread,
+ * so a slow listener only delays itself. Publishing never blocks the tick
+ * thread: when a subscriber's queue is full the alert is dropped for that
+ * subscriber and counted.
+ */
+public class AlertEngine implements AutoCloseable {
+    /** Queue capacity of subscriptions that do not ask for one */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+    
+    private static final Subscription[] NONE = new Subscription[0];
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+    
+    // Copy-on-write, so publishing reads it without locking
+    private volatile Subscription[] subscriptions = NONE;
+    private final LongAdder published = new LongAdder();
+    
+    /**
+     * Deliver every future alert to the listener, queueing up to the default capacity
+     */
+    public Subscription subscribe(AlertListener listener) {
+        return subscribe(listener, DEFAULT_QUEUE_CAPACITY);
+    }
+    
+    /**
+     * Deliver every future alert to the listener, queueing up to capacity
+     * alerts; further alerts are dropped until it catches up
+     */
+    public synchronized Subscription subscribe(AlertListener listener, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        Subscription subscription = new Subscription(this, listener, capacity);
+        Subscription[] current = subscriptions;
+        Subscription[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = subscription;
+        subscriptions = grown;
+        subscription.thread.start();
+        return subscription;
+    }
+    
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] shrunk = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                subscriptions = current.length == 1 ? NONE : shrunk;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Queue one alert per threshold the tick crossed with every subscriber;
+     * a jump from BUY straight to SELL, or back, crosses both. Called on the
+     * tick thread while it holds the stock's monitor.
+     */
+    void publish(Stock stock, Recommendation previous, Recommendation current, double nav, long epochMillis) {
+        Subscription[] targets = subscriptions;
+        if (targets.length == 0) {
+            return;
+        }
+        long detected = System.nanoTime();
+        if (previous != Recommendation.HOLD && current != Recommendation.HOLD) {
+            publish(targets, new ThresholdAlert(stock, previous, Recommendation.HOLD, nav,
+                                                threshold(stock, previous), epochMillis, detected));
+            previous = Recommendation.HOLD;
+        }
+        Recommendation crossed = previous == Recommendation.HOLD ? current : previous;
+        publish(targets, new ThresholdAlert(stock, previous, current, nav,
+                                            threshold(stock, crossed), epochMillis, detected));
+    }
+    
+    private void publish(Subscription[] targets, ThresholdAlert alert) {
+        published.increment();
+        for (Subscription subscription : targets) {
+            subscription.offer(alert);
+        }
+    }
+    
+    private static double threshold(Stock stock, Recommendation band) {
+        return band == Recommendation.BUY ? stock.getBuyThreshold() : stock.getSellThreshold();
+    }
+    
+    /**
+     * Alerts published since construction, counted once however many subscribers got them
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+    
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+    
+    /**
+     * Close every subscription
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+    
+    /**
+     * One listener's queue and delivery thread; close it to stop delivery
+     */
+    public static final class Subscription implements AutoCloseable {
+        // Queued on close to wake the delivery thread
+        private static final ThresholdAlert STOP = new ThresholdAlert(null, null, null, 0, 0, 0, 0);
+        
+        private final AlertEngine engine;
+        private final AlertListener listener;
+        private final BlockingQueue<ThresholdAlert> queue;
+        private final Thread thread;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private volatile boolean closed;
+        
+        private Subscription(AlertEngine engine, AlertListener listener, int capacity) {
+            this.engine = engine;
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::deliver, "alert-delivery-" + THREAD_IDS.incrementAndGet());
+            thread.setDaemon(true);
+        }
+        
+        private void offer(ThresholdAlert alert) {
+            if (!queue.offer(alert)) {
+                dropped.increment();
+            }
+        }
+        
+        private void deliver() {
+            try {
+                while (true) {
+                    ThresholdAlert alert = queue.take();
+                    if (alert == STOP) {
+                        return;
+                    }
+                    try {
+                        listener.onAlert(alert);
+                    } catch (RuntimeException e) {
+                        // A failing listener must not stop later alerts
+                    }
+                    delivered.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        /** Alerts handed to the listener so far */
+        public long getDeliveredCount() { return delivered.sum(); }
+        
+        /** Alerts dropped because the queue was full */
+        public long getDroppedCount() { return dropped.sum(); }
+        
+        /** Alerts waiting for delivery */
+        public int getQueuedCount() { return queue.size(); }
+        
+        /**
+         * Stop delivery; alerts still queued are discarded
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            engine.unsubscribe(this);
+            queue.clear();
+            while (!queue.offer(STOP)) {
+                queue.clear();
+            }
+        }
+    }
+}
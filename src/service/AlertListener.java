@@ -0,0 +1,13 @@
+package service;
+
+/**
+ * Receives threshold crossing alerts from an AlertEngine subscription
+ * Called on the subscription's own delivery thread, never on a tick thread.
+ */
+public interface AlertListener {
+    
+    /**
+     * Called once per crossing, in the order the crossings were detected
+     */
+    void onAlert(ThresholdAlert alert);
+}
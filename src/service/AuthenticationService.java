@@ -1,48 +1,130 @@
 package service;
 
 import model.User;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
 
 /**
  * Simple authentication service for user login/registration
+ * Users are indexed by username in a ConcurrentHashMap, so lookups are O(1)
+ * and logins scale across threads. Passwords are stored as salted
+ * PBKDF2-HMAC-SHA256 hashes. The iteration count sets the cost of one
+ * verification; accounts hashed with fewer iterations than configured are
+ * rehashed on their next successful login.
  */
 public class AuthenticationService {
-    private List<User> users;
+    /** Default PBKDF2 iterations; roughly 100 ms per verification on a desktop core */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+    
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    
+    private final ConcurrentHashMap<String, User> users;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] unknownUserSalt = new byte[SALT_BYTES];
     
     public AuthenticationService() {
-        users = new ArrayList<>();
+        this(DEFAULT_ITERATIONS);
+    }
+    
+    /**
+     * @param iterations PBKDF2 iterations for new and rehashed passwords
+     */
+    public AuthenticationService(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+        this.users = new ConcurrentHashMap<>();
+        random.nextBytes(unknownUserSalt);
         // Add default admin user
-        users.add(new User("admin", "admin"));
+        register("admin", "admin");
     }
     
     /**
      * Authenticate user with username and password
      */
     public boolean authenticate(String username, String password) {
-        User loginUser = new User(username, password);
-        return users.contains(loginUser);
+        if (username == null || password == null) {
+            return false;
+        }
+        
+        User user = users.get(username);
+        if (user == null) {
+            // Spend the same time as a real check so unknown names don't stand out
+            hash(password, unknownUserSalt, iterations);
+            return false;
+        }
+        
+        if (!user.matchesHash(hash(password, user.getSalt(), user.getIterations()))) {
+            return false;
+        }
+        if (user.getIterations() < iterations) {
+            users.replace(username, user, createUser(username, password));
+        }
+        return true;
     }
     
     /**
      * Register a new user
      */
     public boolean register(String username, String password) {
-        // Check if username already exists
-        for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return false; // Username already exists
-            }
+        if (username == null || password == null || users.containsKey(username)) {
+            return false; // Username already exists
         }
-        
-        users.add(new User(username, password));
-        return true;
+        // Hash outside the map; only the insert itself must be atomic
+        return users.putIfAbsent(username, createUser(username, password)) == null;
+    }
+    
+    /**
+     * Store an already hashed account, e.g. when loading users in bulk
+     */
+    public boolean addUser(User user) {
+        return users.putIfAbsent(user.getUsername(), user) == null;
+    }
+    
+    /**
+     * Number of registered users
+     */
+    public int getUserCount() {
+        return users.size();
+    }
+    
+    /**
+     * PBKDF2 iterations applied to new passwords
+     */
+    public int getIterations() {
+        return iterations;
     }
     
     /**
      * Get all registered users (for testing purposes)
      */
     public List<User> getAllUsers() {
-        return new ArrayList<>(users);
+        return new ArrayList<>(users.values());
+    }
+    
+    private User createUser(String username, String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return new User(username, salt, hash(password, salt, iterations), iterations);
+    }
+    
+    static byte[] hash(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
     }
 }
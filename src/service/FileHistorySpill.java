@@ -0,0 +1,87 @@
+package service;
+
+import model.HistorySpill;
+import model.NAVHistory;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * HistorySpill backed by one file of interleaved 16-byte {NAV, epoch millis}
+ * records, little-endian, tick i at offset 16 * i. Writes go through a
+ * channel at their position, leaving holes over trimmed ticks; reads map
+ * just the requested range read-only. No descriptor stays open between
+ * calls, so any number of stocks can spill.
+ */
+final class FileHistorySpill implements HistorySpill {
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_MAPPED_TICKS = 1 << 26; // 1 GB per mapping
+    
+    private final Path file;
+    private volatile int size;
+    private volatile long bytes;
+    
+    FileHistorySpill(Path file) {
+        this.file = file;
+    }
+    
+    @Override
+    public int size() { return size; }
+    
+    @Override
+    public synchronized void write(int index, double[] navs, long[] timestamps, int from, int to) throws IOException {
+        if (index < size) {
+            throw new IllegalArgumentException("Tick " + index + " is already spilled");
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = (long) index * NAVHistory.BYTES_PER_TICK;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            for (int i = from; i < to; i++) {
+                if (buffer.remaining() < NAVHistory.BYTES_PER_TICK) {
+                    position = drain(channel, buffer, position);
+                }
+                buffer.putDouble(navs[i]).putLong(timestamps[i]);
+            }
+            drain(channel, buffer, position);
+        }
+        size = index + to - from;
+        bytes += (long) (to - from) * NAVHistory.BYTES_PER_TICK;
+    }
+    
+    private static long drain(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+        return position;
+    }
+    
+    @Override
+    public void read(int from, int to, double[] navs, long[] timestamps, int offset) throws IOException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside spilled size " + size);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int start = from; start < to; start += MAX_MAPPED_TICKS) {
+                int count = Math.min(to - start, MAX_MAPPED_TICKS);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY,
+                                                      (long) start * NAVHistory.BYTES_PER_TICK,
+                                                      (long) count * NAVHistory.BYTES_PER_TICK);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                int target = offset + start - from;
+                for (int i = 0; i < count; i++) {
+                    navs[target + i] = mapped.getDouble(i * NAVHistory.BYTES_PER_TICK);
+                    timestamps[target + i] = mapped.getLong(i * NAVHistory.BYTES_PER_TICK + Double.BYTES);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public long getBytes() { return bytes; }
+}
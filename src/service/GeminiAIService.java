@@ -1,167 +1,224 @@
 package service;
 
+import model.Resolution;
 import model.Stock;
-import model.NAVRecord;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Mock Gemini AI service for NAV prediction
- * In a real application, this would integrate with Google's Gemini API
+ * Gemini AI service for NAV prediction
+ * Delegates the model call to an InferenceBackend (the in-process mock by
+ * default, or a remote endpoint) and derives trend, signal and risk locally.
  */
 public class GeminiAIService {
-    private Random random;
-    private static final String[] MARKET_FACTORS = {
-        "market volatility", "economic indicators", "sector performance", 
-        "company fundamentals", "technical analysis", "global market trends"
-    };
+    /** Smallest number of stocks worth handing to a worker thread */
+    private static final int MIN_BATCH_SIZE = 256;
     
-    private static final String[] PREDICTIONS = {
-        "upward trend", "downward trend", "sideways movement", "strong bullish signal",
-        "bearish indication", "consolidation phase", "breakout pattern", "reversal signal"
-    };
+    private final int parallelism;
+    private final PredictionCache cache;
+    private final InferenceBackend backend;
+    private ExecutorService executor;
     
     public GeminiAIService() {
-        random = new Random();
+        this(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * @param parallelism maximum number of threads used by predictAll
+     */
+    public GeminiAIService(int parallelism) {
+        this(parallelism, new PredictionCache());
+    }
+    
+    /**
+     * @param parallelism maximum number of threads used by predictAll
+     * @param cache cache consulted before computing a prediction
+     */
+    public GeminiAIService(int parallelism, PredictionCache cache) {
+        this(parallelism, cache, new LocalInferenceBackend());
+    }
+    
+    /**
+     * @param parallelism maximum number of threads used by predictAll
+     * @param cache cache consulted before computing a prediction
+     * @param backend model that produces the raw predictions
+     */
+    public GeminiAIService(int parallelism, PredictionCache cache, InferenceBackend backend) {
+        this.parallelism = Math.max(1, parallelism);
+        this.cache = cache;
+        this.backend = backend;
     }
     
     /**
      * Generate AI prediction for stock NAV
-     * This is a mock implementation - in real scenario, you would call Gemini API
+     * Blocks until the backend answers; prefer predictNAVAsync on UI threads.
+     */
+    public PredictionResult predictNAV(Stock stock) {
+        return await(predictNAVAsync(stock));
+    }
+    
+    /**
+     * Generate AI prediction for stock NAV without blocking
+     * Served from the prediction cache until the stock's history or thresholds change
      */
-    public String predictNAV(Stock stock) {
+    public CompletableFuture<PredictionResult> predictNAVAsync(Stock stock) {
         if (stock == null) {
-            return "Unable to generate prediction: Invalid stock data";
+            throw new IllegalArgumentException("Unable to generate prediction: Invalid stock data");
         }
-        
-        List<NAVRecord> history = stock.getNavHistory();
-        double currentNAV = stock.getCurrentNAV();
-        
-        // Mock AI analysis
-        StringBuilder prediction = new StringBuilder();
-        
-        // Analyze trend
-        String trend = analyzeTrend(history);
-        prediction.append("📈 Trend Analysis: ").append(trend).append("\n\n");
-        
-        // Generate prediction
-        double predictedNAV = generatePredictedNAV(currentNAV, history);
-        prediction.append("🔮 Predicted NAV (Next Period): ₹").append(String.format("%.2f", predictedNAV)).append("\n\n");
-        
-        // Calculate confidence
-        int confidence = 60 + random.nextInt(35); // 60-95% confidence
-        prediction.append("📊 Confidence Level: ").append(confidence).append("%\n\n");
-        
-        // Market factors
-        String factor = MARKET_FACTORS[random.nextInt(MARKET_FACTORS.length)];
-        prediction.append("🌍 Key Factor: Based on ").append(factor).append("\n\n");
-        
-        // Recommendation
-        String recommendation = generateRecommendation(currentNAV, predictedNAV, stock);
-        prediction.append("💡 AI Recommendation: ").append(recommendation).append("\n\n");
-        
-        // Risk assessment
-        String risk = assessRisk(history);
-        prediction.append("⚠️ Risk Assessment: ").append(risk);
-        
-        return prediction.toString();
+        return cache.getAsync(stock, this::computePrediction);
     }
     
-    private String analyzeTrend(List<NAVRecord> history) {
-        if (history.size() < 2) {
-            return "Insufficient data for trend analysis";
-        }
-        
-        // Simple trend analysis
-        double firstNAV = history.get(0).getNav();
-        double lastNAV = history.get(history.size() - 1).getNav();
-        double change = ((lastNAV - firstNAV) / firstNAV) * 100;
-        
-        if (change > 5) {
-            return "Strong upward trend (+⬆️)";
-        } else if (change > 1) {
-            return "Mild upward trend (+⬆️)";
-        } else if (change < -5) {
-            return "Strong downward trend (-⬇️)";
-        } else if (change < -1) {
-            return "Mild downward trend (-⬇️)";
-        } else {
-            return "Sideways/consolidation (↔️)";
+    /**
+     * Generate AI prediction from the newest lookbackBars OHLC bars at a
+     * resolution instead of the raw ticks; blocks until the backend answers
+     */
+    public PredictionResult predictNAV(Stock stock, Resolution resolution, int lookbackBars) {
+        return await(predictNAVAsync(stock, resolution, lookbackBars));
+    }
+    
+    /**
+     * Generate AI prediction from the newest lookbackBars OHLC bars at a
+     * resolution without blocking; not cached, since the cache holds one
+     * tick-based prediction per stock
+     */
+    public CompletableFuture<PredictionResult> predictNAVAsync(Stock stock, Resolution resolution, int lookbackBars) {
+        if (stock == null) {
+            throw new IllegalArgumentException("Unable to generate prediction: Invalid stock data");
         }
+        return computePrediction(stock, InferenceRequest.of(stock, resolution, lookbackBars));
     }
     
-    private double generatePredictedNAV(double currentNAV, List<NAVRecord> history) {
-        // Mock prediction logic
-        double volatility = calculateVolatility(history);
-        double trendFactor = 0.95 + (random.nextDouble() * 0.1); // ±5% change
-        
-        // Add some randomness based on volatility
-        double prediction = currentNAV * trendFactor;
-        
-        // Ensure prediction is within reasonable bounds
-        double maxChange = currentNAV * 0.15; // Max 15% change
-        double change = prediction - currentNAV;
+    /**
+     * Prediction cache, exposed for its hit/miss/eviction counters
+     */
+    public PredictionCache getCache() {
+        return cache;
+    }
+    
+    private CompletableFuture<PredictionResult> computePrediction(Stock stock) {
+        return computePrediction(stock, InferenceRequest.of(stock));
+    }
+    
+    private CompletableFuture<PredictionResult> computePrediction(Stock stock, InferenceRequest request) {
+        // Snapshot everything needed from the stock before leaving this thread
+        String name = stock.getName();
+        double buyThreshold = stock.getBuyThreshold();
+        double sellThreshold = stock.getSellThreshold();
+        
+        // A stock with no NAV yet (e.g. recreated without history) has no trend to speak of
+        double firstNav = request.getFirstNav();
+        double totalChangePercent = firstNav > 0 ? ((request.getLastNav() - firstNav) / firstNav) * 100 : 0;
+        PredictionResult.Trend trend = PredictionResult.Trend.of(request.getTickCount(), totalChangePercent);
+        PredictionResult.RiskBand risk = PredictionResult.RiskBand.of(calculateVolatility(request));
+        
+        return backend.infer(request).thenApply(response -> {
+            double currentNAV = request.getCurrentNAV();
+            double predictedNAV = response.getPredictedNAV();
+            
+            // Recommendation, considering user thresholds
+            double change = currentNAV > 0 ? ((predictedNAV - currentNAV) / currentNAV) * 100 : 0;
+            PredictionResult.Signal signal = PredictionResult.Signal.of(change);
+            boolean buyReachable = buyThreshold > 0 && predictedNAV <= buyThreshold;
+            boolean sellReachable = sellThreshold > 0 && predictedNAV >= sellThreshold;
+            
+            return new PredictionResult(name, request.getSymbol(), currentNAV, predictedNAV, response.getConfidence(),
+                                        trend, signal, risk, response.getKeyFactor(), buyReachable, sellReachable);
+        });
+    }
+    
+    /**
+     * Predict every stock in the collection, fanning out over a bounded pool.
+     * Results are returned in the iteration order of the input.
+     */
+    public List<PredictionResult> predictAll(Collection<Stock> stocks) {
+        List<Stock> input = new ArrayList<>(stocks);
+        int chunks = Math.min(parallelism, (input.size() + MIN_BATCH_SIZE - 1) / MIN_BATCH_SIZE);
+        List<CompletableFuture<PredictionResult>> futures = new ArrayList<>(input.size());
         
-        if (Math.abs(change) > maxChange) {
-            change = change > 0 ? maxChange : -maxChange;
-            prediction = currentNAV + change;
+        if (chunks <= 1) {
+            futures.addAll(submitRange(input, 0, input.size()));
+        } else {
+            List<Callable<List<CompletableFuture<PredictionResult>>>> tasks = new ArrayList<>(chunks);
+            int chunkSize = (input.size() + chunks - 1) / chunks;
+            for (int from = 0; from < input.size(); from += chunkSize) {
+                int start = from;
+                int end = Math.min(input.size(), from + chunkSize);
+                tasks.add(() -> submitRange(input, start, end));
+            }
+            
+            try {
+                for (Future<List<CompletableFuture<PredictionResult>>> future : getExecutor().invokeAll(tasks)) {
+                    futures.addAll(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch prediction interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Batch prediction failed", e.getCause());
+            }
         }
         
-        return Math.max(1.0, prediction); // Minimum NAV of ₹1
+        List<PredictionResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<PredictionResult> future : futures) {
+            results.add(await(future));
+        }
+        return results;
     }
     
-    private double calculateVolatility(List<NAVRecord> history) {
-        if (history.size() < 2) return 0.1;
-        
-        double totalVariation = 0;
-        for (int i = 1; i < history.size(); i++) {
-            double change = Math.abs(history.get(i).getNav() - history.get(i-1).getNav());
-            totalVariation += change;
+    private List<CompletableFuture<PredictionResult>> submitRange(List<Stock> stocks, int from, int to) {
+        List<CompletableFuture<PredictionResult>> futures = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            futures.add(predictNAVAsync(stocks.get(i)));
         }
-        
-        return totalVariation / (history.size() - 1);
+        return futures;
     }
     
-    private String generateRecommendation(double currentNAV, double predictedNAV, Stock stock) {
-        double change = ((predictedNAV - currentNAV) / currentNAV) * 100;
-        
-        StringBuilder rec = new StringBuilder();
-        
-        if (change > 3) {
-            rec.append("🟢 STRONG BUY - Expected growth of ").append(String.format("%.1f%%", change));
-        } else if (change > 1) {
-            rec.append("🟢 BUY - Moderate growth expected (").append(String.format("%.1f%%", change)).append(")");
-        } else if (change < -3) {
-            rec.append("🔴 SELL - Expected decline of ").append(String.format("%.1f%%", Math.abs(change)));
-        } else if (change < -1) {
-            rec.append("🟡 WEAK SELL - Minor decline expected (").append(String.format("%.1f%%", Math.abs(change))).append(")");
-        } else {
-            rec.append("🟡 HOLD - Sideways movement expected");
+    private static PredictionResult await(CompletableFuture<PredictionResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Prediction failed", e.getCause());
         }
-        
-        // Consider user thresholds
-        if (stock.getBuyThreshold() > 0 && predictedNAV <= stock.getBuyThreshold()) {
-            rec.append("\n   📉 Note: Predicted NAV may reach your buy threshold!");
+    }
+    
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "ai-prediction");
+                thread.setDaemon(true);
+                return thread;
+            });
         }
-        if (stock.getSellThreshold() > 0 && predictedNAV >= stock.getSellThreshold()) {
-            rec.append("\n   📈 Note: Predicted NAV may reach your sell threshold!");
+        return executor;
+    }
+    
+    /**
+     * Release the batch prediction threads and the inference backend
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
         }
-        
-        return rec.toString();
+        backend.close();
     }
     
-    private String assessRisk(List<NAVRecord> history) {
-        double volatility = calculateVolatility(history);
+    private double calculateVolatility(InferenceRequest request) {
+        if (request.getTickCount() < 2) return 0.1;
         
-        if (volatility < 10) {
-            return "🟢 LOW RISK - Stable price movement";
-        } else if (volatility < 25) {
-            return "🟡 MODERATE RISK - Normal market fluctuation";
-        } else if (volatility < 50) {
-            return "🟠 HIGH RISK - Significant volatility";
-        } else {
-            return "🔴 VERY HIGH RISK - Extreme volatility";
-        }
+        // Mean absolute tick-to-tick (or bar-to-bar) change, maintained incrementally by the history
+        return request.getMeanAbsoluteChange();
     }
     
     /**
@@ -176,7 +233,8 @@ public class GeminiAIService {
      * Get AI service status
      */
     public String getServiceStatus() {
-        return "🤖 Gemini AI Service: Mock Mode\n" +
+        String mode = backend instanceof LocalInferenceBackend ? "Mock Mode" : "Remote Inference";
+        return "🤖 Gemini AI Service: " + mode + "\n" +
                "📡 Status: Online (Simulated)\n" +
                "🔑 API: Demo Mode - Replace with real Gemini API key\n" +
                "📊 Predictions: Based on technical analysis simulation";
@@ -0,0 +1,447 @@
+package service;
+
+import model.Stock;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streaming bulk import of NAV history from "symbol,epochMillis,nav" CSV files
+ * The file is cut into chunks at line boundaries and each chunk is memory
+ * mapped and parsed straight from the mapped bytes by a worker thread;
+ * symbols are resolved through a byte-keyed table, so no String is created
+ * per field. A worker groups its chunk's ticks by stock, and chunks are
+ * committed in file order with one bulk append per stock, so each history
+ * ends up in file order. Only a bounded window of chunks is in flight.
+ *
+ * Symbols match case-insensitively; unknown symbols are skipped. Ticks older
+ * than the stock's latest tick are dropped so histories stay time ordered;
+ * stocks meant to receive old history should be added without generated
+ * history. A non-numeric first line is treated as a header.
+ */
+public class HistoryImporter {
+    public static final int DEFAULT_CHUNK_BYTES = 8 << 20;
+    
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    private static final int MAX_FAST_DIGITS = 15; // 10^15 < 2^53, so the mantissa is exact
+    
+    private final StockService stockService;
+    private final int parallelism;
+    private final int chunkBytes;
+    
+    public HistoryImporter(StockService stockService) {
+        this(stockService, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+    
+    public HistoryImporter(StockService stockService, int parallelism, int chunkBytes) {
+        this.stockService = stockService;
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkBytes = Math.max(1 << 10, chunkBytes);
+    }
+    
+    /**
+     * Import every tick in the file into the matching stocks' histories
+     */
+    public Result importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        SymbolTable symbols = new SymbolTable(stockService.getAllStocks());
+        Result result = new Result();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            int window = parallelism + 2; // Bounds the parsed ticks held in memory
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "history-import");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>(window);
+                int next = 0;
+                int chunks = bounds.length - 1;
+                while (next < chunks || !inFlight.isEmpty()) {
+                    while (next < chunks && inFlight.size() < window) {
+                        long from = bounds[next];
+                        long to = bounds[next + 1];
+                        boolean first = next == 0;
+                        inFlight.add(executor.submit(() -> parseChunk(channel, from, to, first, symbols)));
+                        next++;
+                    }
+                    commit(inFlight.poll().get(), result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("History import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("History import failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            result.bytes = channel.size();
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+    
+    /**
+     * Chunk start offsets, each just past a newline, plus the file size
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkBytes;
+        while (position < size) {
+            long lineEnd = -1;
+            long scan = position;
+            while (lineEnd < 0 && scan < size) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + chunkBytes;
+        }
+        bounds.add(size);
+        
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+    
+    private static Chunk parseChunk(FileChannel channel, long from, long to, boolean firstChunk,
+                                    SymbolTable symbols) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        int limit = buffer.limit();
+        Chunk chunk = new Chunk(Math.max(16, limit / 32));
+        
+        int pos = 0;
+        boolean firstLine = firstChunk;
+        while (pos < limit) {
+            int lineStart = pos;
+            byte first = buffer.get(pos);
+            if (first == '\n' || first == '\r') {
+                pos++; // Blank line
+                continue;
+            }
+            
+            // Symbol
+            int hash = 0;
+            byte b = 0;
+            while (pos < limit && (b = buffer.get(pos)) != ',' && b != '\n') {
+                hash = 31 * hash + lower(b);
+                pos++;
+            }
+            int symbolEnd = pos;
+            
+            // Timestamp
+            long timestamp = 0;
+            int digits = 0;
+            if (b == ',') {
+                pos++;
+                while (pos < limit && (b = buffer.get(pos)) >= '0' && b <= '9') {
+                    timestamp = timestamp * 10 + (b - '0');
+                    digits++;
+                    pos++;
+                }
+            }
+            
+            // NAV
+            double nav = Double.NaN;
+            if (digits > 0 && digits <= 18 && b == ',') {
+                pos++;
+                long mantissa = 0;
+                int mantissaDigits = 0;
+                int fractionDigits = 0;
+                boolean dot = false;
+                int numberStart = pos;
+                while (pos < limit) {
+                    b = buffer.get(pos);
+                    if (b >= '0' && b <= '9') {
+                        mantissa = mantissa * 10 + (b - '0');
+                        mantissaDigits++;
+                        if (dot) fractionDigits++;
+                    } else if (b == '.' && !dot) {
+                        dot = true;
+                    } else {
+                        break;
+                    }
+                    pos++;
+                }
+                boolean lineEnd = pos >= limit || b == '\n' || b == '\r';
+                if (lineEnd && mantissaDigits > 0 && mantissaDigits <= MAX_FAST_DIGITS) {
+                    nav = mantissa / POW10[fractionDigits];
+                } else if (mantissaDigits > 0 || !lineEnd) {
+                    // Long mantissa or exponent: rare, so a String is fine here
+                    while (pos < limit && buffer.get(pos) != '\n' && buffer.get(pos) != '\r') pos++;
+                    nav = parseSlow(buffer, numberStart, pos);
+                }
+            }
+            
+            // Skip to the next line
+            while (pos < limit && buffer.get(pos) != '\n') pos++;
+            pos++;
+            
+            if (!(nav >= 0) || Double.isInfinite(nav)) {
+                if (!(firstLine && lineStart == 0)) {
+                    chunk.malformed++;
+                }
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+            
+            Stock stock = symbols.get(buffer, lineStart, symbolEnd, hash);
+            if (stock == null) {
+                chunk.unknown++;
+                continue;
+            }
+            chunk.add(stock, timestamp, nav);
+        }
+        
+        chunk.groupByStock();
+        return chunk;
+    }
+    
+    private static double parseSlow(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+    
+    /**
+     * Runs on the importing thread, in chunk order
+     */
+    private static void commit(Chunk chunk, Result result) {
+        result.malformed += chunk.malformed;
+        result.unknownSymbol += chunk.unknown;
+        result.outOfOrder += chunk.outOfOrder;
+        for (int r = 0; r < chunk.runCount; r++) {
+            Stock stock = chunk.runStocks[r];
+            int from = chunk.runStarts[r];
+            int to = chunk.runStarts[r + 1];
+            
+            // Runs are time ordered; drop the prefix older than what the stock already has
+            long latest = stock.getHistoryStore().getLastTimestamp();
+            if (latest != Long.MIN_VALUE) {
+                int keep = from;
+                while (keep < to && chunk.timestamps[keep] < latest) keep++;
+                result.outOfOrder += keep - from;
+                from = keep;
+            }
+            stock.appendHistory(chunk.navs, chunk.timestamps, from, to);
+            result.imported += to - from;
+        }
+    }
+    
+    private static int lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+    
+    /**
+     * Ticks parsed from one chunk, regrouped into one time-ordered run per stock
+     */
+    private static final class Chunk {
+        Stock[] stocks;
+        long[] timestamps;
+        double[] navs;
+        int size;
+        long malformed;
+        long unknown;
+        long outOfOrder;
+        
+        Stock[] runStocks;
+        int[] runStarts;
+        int runCount;
+        
+        Chunk(int capacity) {
+            stocks = new Stock[capacity];
+            timestamps = new long[capacity];
+            navs = new double[capacity];
+        }
+        
+        void add(Stock stock, long timestamp, double nav) {
+            if (size == stocks.length) {
+                int capacity = size + (size >> 1);
+                stocks = Arrays.copyOf(stocks, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                navs = Arrays.copyOf(navs, capacity);
+            }
+            stocks[size] = stock;
+            timestamps[size] = timestamp;
+            navs[size] = nav;
+            size++;
+        }
+        
+        /**
+         * Stable counting sort by stock id, then drop ticks that go back in time within a run
+         */
+        void groupByStock() {
+            int maxId = -1;
+            for (int i = 0; i < size; i++) maxId = Math.max(maxId, stocks[i].getId());
+            int[] counts = new int[maxId + 2];
+            for (int i = 0; i < size; i++) counts[stocks[i].getId() + 1]++;
+            
+            int runs = 0;
+            for (int id = 0; id <= maxId; id++) {
+                if (counts[id + 1] > 0) runs++;
+                counts[id + 1] += counts[id];
+            }
+            
+            long[] sortedTimestamps = new long[size];
+            double[] sortedNavs = new double[size];
+            Stock[] byId = new Stock[maxId + 1];
+            int[] cursor = Arrays.copyOf(counts, maxId + 1);
+            for (int i = 0; i < size; i++) {
+                int id = stocks[i].getId();
+                byId[id] = stocks[i];
+                int slot = cursor[id]++;
+                sortedTimestamps[slot] = timestamps[i];
+                sortedNavs[slot] = navs[i];
+            }
+            
+            runStocks = new Stock[runs];
+            runStarts = new int[runs + 1];
+            int write = 0;
+            int run = 0;
+            for (int id = 0; id <= maxId; id++) {
+                int from = counts[id];
+                int to = counts[id + 1];
+                if (from == to) continue;
+                runStocks[run] = byId[id];
+                runStarts[run++] = write;
+                long latest = Long.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    if (sortedTimestamps[i] < latest) {
+                        outOfOrder++;
+                        continue;
+                    }
+                    latest = sortedTimestamps[i];
+                    sortedTimestamps[write] = latest;
+                    sortedNavs[write++] = sortedNavs[i];
+                }
+            }
+            runStarts[runs] = write;
+            runCount = runs;
+            
+            stocks = null;
+            timestamps = sortedTimestamps;
+            navs = sortedNavs;
+        }
+    }
+    
+    /**
+     * Open-addressing map from ASCII-case-folded symbol bytes to stocks
+     */
+    private static final class SymbolTable {
+        private final byte[][] keys;
+        private final Stock[] values;
+        private final int mask;
+        
+        SymbolTable(List<Stock> stocks) {
+            int capacity = Integer.highestOneBit(Math.max(2, stocks.size() * 2) - 1) << 1;
+            keys = new byte[capacity][];
+            values = new Stock[capacity];
+            mask = capacity - 1;
+            for (Stock stock : stocks) {
+                byte[] key = stock.getSymbol().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+                int hash = 0;
+                for (byte b : key) hash = 31 * hash + lower(b);
+                int slot = spread(hash) & mask;
+                while (keys[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = key;
+                values[slot] = stock;
+            }
+        }
+        
+        Stock get(ByteBuffer buffer, int from, int to, int hash) {
+            int length = to - from;
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                byte[] key = keys[slot];
+                if (key.length == length && matches(key, buffer, from)) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+        
+        private static boolean matches(byte[] key, ByteBuffer buffer, int from) {
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != lower(buffer.get(from + i))) return false;
+            }
+            return true;
+        }
+        
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+    
+    /**
+     * Counters from one import
+     */
+    public static class Result {
+        private long imported;
+        private long malformed;
+        private long unknownSymbol;
+        private long outOfOrder;
+        private long bytes;
+        private long elapsedNanos;
+        
+        public long getImported() { return imported; }
+        public long getMalformed() { return malformed; }
+        public long getUnknownSymbol() { return unknownSymbol; }
+        
+        /** Ticks dropped because they were older than the stock's latest tick */
+        public long getOutOfOrder() { return outOfOrder; }
+        
+        public long getBytes() { return bytes; }
+        public double getElapsedMillis() { return elapsedNanos / 1e6; }
+        
+        public double getTicksPerSecond() {
+            return elapsedNanos == 0 ? 0 : imported * 1e9 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                                 "Imported %,d ticks (%.1f MB) in %.0f ms, %,.0f ticks/s; skipped %d malformed, %d unknown symbol, %d out of order",
+                                 imported, bytes / 1e6, getElapsedMillis(), getTicksPerSecond(),
+                                 malformed, unknownSymbol, outOfOrder);
+        }
+    }
+}
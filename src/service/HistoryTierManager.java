@@ -0,0 +1,212 @@
+package service;
+
+import model.NAVHistory;
+import model.Stock;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps NAV history within a heap budget by spilling cold histories to disk
+ * Each enforcement pass sums the heap held by every history. While that is
+ * over budget, the least recently read histories move all but their newest
+ * ticks to a per-stock file in the spill directory. Histories read during
+ * the last interval count as in use and are left alone.
+ *
+ * A spilled history reloads itself the next time it is read, e.g. when a
+ * chart opens. Appends, the latest tick and the running statistics never
+ * need the spilled part, so ticking, the table and predictions carry on
+ * without reloading. Spill files stay valid for as long as the histories
+ * that point at them; a new manager clears the directory on start.
+ *
+ * With a raw retention set, each pass first drops raw ticks older than it;
+ * their OHLC bars and the running statistics keep covering them.
+ */
+public class HistoryTierManager implements AutoCloseable {
+    private static final String SUFFIX = ".spill";
+    
+    /**
+     * Heap budget for all histories, ticks kept on heap per history, how
+     * often the budget is enforced and how long raw ticks are kept (0 keeps
+     * them forever)
+     */
+    public static class Options {
+        private long heapBudgetBytes = 256L << 20;
+        private int recentTicks = 1024;
+        private long enforceIntervalMillis = 1_000;
+        private long rawRetentionMillis = 0;
+        
+        public Options heapBudgetBytes(long value) { heapBudgetBytes = value; return this; }
+        public Options recentTicks(int value) { recentTicks = value; return this; }
+        public Options enforceIntervalMillis(long value) { enforceIntervalMillis = value; return this; }
+        public Options rawRetentionMillis(long value) { rawRetentionMillis = value; return this; }
+    }
+    
+    private final StockService service;
+    private final Path directory;
+    private final Options options;
+    private final Map<Integer, FileHistorySpill> spills = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    
+    // Metrics from the last pass
+    private volatile long heapBytes;
+    private volatile long spilledBytes;
+    private volatile int hotHistories;
+    private volatile int coldHistories;
+    private volatile long evictions;
+    private volatile long trimmedTicks;
+    private volatile long lastPassMillis;
+    
+    public HistoryTierManager(StockService service, Path directory) throws IOException {
+        this(service, directory, new Options());
+    }
+    
+    public HistoryTierManager(StockService service, Path directory, Options options) throws IOException {
+        this.service = service;
+        this.directory = directory;
+        this.options = options;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-tiering");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Enforce the budget in the background every interval
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                enforce();
+            } catch (IOException | RuntimeException e) {
+                // Nothing was lost; the next pass tries again
+            }
+        }, options.enforceIntervalMillis, options.enforceIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * One pass: trim raw ticks past retention, measure every tier and spill
+     * least recently read histories until the heap tier fits the budget.
+     * Returns the heap bytes released by spilling.
+     */
+    public synchronized long enforce() throws IOException {
+        long start = System.nanoTime();
+        List<Stock> stocks = service.getAllStocks();
+        if (options.rawRetentionMillis > 0) {
+            long cutoff = System.currentTimeMillis() - options.rawRetentionMillis;
+            long dropped = 0;
+            for (Stock stock : stocks) {
+                dropped += stock.trimHistoryBefore(cutoff);
+            }
+            trimmedTicks += dropped;
+        }
+        NAVHistory[] histories = new NAVHistory[stocks.size()];
+        long heap = 0;
+        for (int i = 0; i < histories.length; i++) {
+            histories[i] = stocks.get(i).getHistoryStore();
+            heap += histories[i].getMemoryUsage();
+        }
+        
+        long released = 0;
+        if (heap > options.heapBudgetBytes) {
+            Integer[] order = new Integer[histories.length];
+            long[] lastAccess = new long[histories.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+                lastAccess[i] = histories[i].getLastAccessNanos();
+            }
+            Arrays.sort(order, Comparator.comparingLong(i -> lastAccess[i]));
+            
+            long inUseSince = start - TimeUnit.MILLISECONDS.toNanos(options.enforceIntervalMillis);
+            for (int i = 0; i < order.length && heap - released > options.heapBudgetBytes; i++) {
+                int index = order[i];
+                if (lastAccess[index] - inUseSince > 0) {
+                    break; // Everything from here on was read recently
+                }
+                NAVHistory history = histories[index];
+                if (history.size() - history.getSpilledCount() <= options.recentTicks) {
+                    continue;
+                }
+                int id = stocks.get(index).getId();
+                FileHistorySpill spill = spills.computeIfAbsent(id, key ->
+                        new FileHistorySpill(directory.resolve(String.format(Locale.ROOT, "%d%s", key, SUFFIX))));
+                long freed = history.spill(spill, options.recentTicks);
+                if (freed > 0) {
+                    released += freed;
+                    evictions++;
+                }
+            }
+        }
+        
+        int cold = 0;
+        for (NAVHistory history : histories) {
+            if (history.getSpilledCount() > 0) {
+                cold++;
+            }
+        }
+        long onDisk = 0;
+        for (FileHistorySpill spill : spills.values()) {
+            onDisk += spill.getBytes();
+        }
+        heapBytes = heap - released;
+        spilledBytes = onDisk;
+        coldHistories = cold;
+        hotHistories = histories.length - cold;
+        lastPassMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return released;
+    }
+    
+    /** Heap held by history arrays after the last pass */
+    public long getHeapBytes() { return heapBytes; }
+    
+    /** Bytes in spill files, including ticks since reloaded onto the heap */
+    public long getSpilledBytes() { return spilledBytes; }
+    
+    /** Histories entirely on the heap */
+    public int getHotHistories() { return hotHistories; }
+    
+    /** Histories whose older ticks are only on disk */
+    public int getColdHistories() { return coldHistories; }
+    
+    /** Spills performed since start */
+    public long getEvictions() { return evictions; }
+    
+    /** Raw ticks dropped by retention since start */
+    public long getTrimmedTicks() { return trimmedTicks; }
+    
+    public long getLastPassMillis() { return lastPassMillis; }
+    
+    public long getHeapBudgetBytes() { return options.heapBudgetBytes; }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "History: heap %.1f/%.0f MB (%,d hot), disk %.1f MB (%,d cold)",
+                             heapBytes / 1e6, options.heapBudgetBytes / 1e6, hotHistories,
+                             spilledBytes / 1e6, coldHistories);
+    }
+    
+    /**
+     * Stop enforcing; spilled histories keep reading from their files
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,282 @@
+package service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking inference backend that talks to a remote model over HTTP.
+ * Requests are collected into batches (flushed when full or after a short
+ * delay), each batch takes a token from a rate limiter before it is sent,
+ * failed batches are retried with jittered exponential backoff, and every
+ * caller's future times out on its own.
+ *
+ * Wire format, one item per line in both directions (text/csv):
+ * request  "symbol,currentNAV,tickCount,firstNav,lastNav,meanAbsoluteChange"
+ * response "predictedNAV,confidence,keyFactor", or "!message" when that one
+ *          item could not be predicted
+ * Text fields (symbol, keyFactor, message) are percent-encoded, so commas
+ * and line breaks typed into a symbol never split a field or a line.
+ */
+public class HttpInferenceBackend implements InferenceBackend {
+    
+    /**
+     * Tuning knobs; defaults suit a local or same-region endpoint
+     */
+    public static class Options {
+        private int maxBatchSize = 64;
+        private long maxBatchDelayMillis = 5;
+        private double batchesPerSecond = 200;
+        private int burst = 20;
+        private long callTimeoutMillis = 2_000;
+        private long attemptTimeoutMillis = 500;
+        private int maxRetries = 3;
+        private long retryBaseDelayMillis = 50;
+        
+        public Options maxBatchSize(int value) { maxBatchSize = value; return this; }
+        public Options maxBatchDelayMillis(long value) { maxBatchDelayMillis = value; return this; }
+        public Options rateLimit(double perSecond, int burstSize) { batchesPerSecond = perSecond; burst = burstSize; return this; }
+        public Options callTimeoutMillis(long value) { callTimeoutMillis = value; return this; }
+        public Options attemptTimeoutMillis(long value) { attemptTimeoutMillis = value; return this; }
+        public Options maxRetries(int value) { maxRetries = value; return this; }
+        public Options retryBaseDelayMillis(long value) { retryBaseDelayMillis = value; return this; }
+    }
+    
+    private static final String ERROR_PREFIX = "!";
+    
+    private final URI endpoint;
+    private final Options options;
+    private final HttpClient client;
+    private final TokenBucket rateLimiter;
+    private final ScheduledExecutorService scheduler;
+    
+    private final Object lock = new Object();
+    private List<PendingCall> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private boolean closed;
+    
+    public HttpInferenceBackend(URI endpoint) {
+        this(endpoint, new Options());
+    }
+    
+    public HttpInferenceBackend(URI endpoint, Options options) {
+        this.endpoint = endpoint;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(options.attemptTimeoutMillis))
+                .build();
+        this.rateLimiter = new TokenBucket(options.batchesPerSecond, options.burst);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inference-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<InferenceResponse> infer(InferenceRequest request) {
+        PendingCall call = new PendingCall(request);
+        call.future.orTimeout(options.callTimeoutMillis, TimeUnit.MILLISECONDS);
+        
+        List<PendingCall> batch = null;
+        synchronized (lock) {
+            if (closed) {
+                call.future.completeExceptionally(new IllegalStateException("Inference backend is closed"));
+                return call.future;
+            }
+            pending.add(call);
+            if (pending.size() >= options.maxBatchSize) {
+                batch = drainPending();
+            } else if (pending.size() == 1) {
+                flushTask = scheduler.schedule(this::flush, options.maxBatchDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch, 0);
+        }
+        return call.future;
+    }
+    
+    private void flush() {
+        List<PendingCall> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drainPending();
+        }
+        dispatch(batch, 0);
+    }
+    
+    // Caller must hold lock
+    private List<PendingCall> drainPending() {
+        List<PendingCall> batch = pending;
+        pending = new ArrayList<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+    
+    private void dispatch(List<PendingCall> batch, int attempt) {
+        // Callers that already timed out are not worth a round trip
+        List<PendingCall> live = new ArrayList<>(batch.size());
+        for (PendingCall call : batch) {
+            if (!call.future.isDone()) {
+                live.add(call);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        
+        long waitNanos = rateLimiter.tryAcquire();
+        if (waitNanos > 0) {
+            schedule(() -> dispatch(live, attempt), waitNanos, TimeUnit.NANOSECONDS, live);
+            return;
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofMillis(options.attemptTimeoutMillis))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(encodeRequests(live)))
+                .build();
+        
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 200) {
+                completeBatch(live, response.body());
+                return;
+            }
+            
+            boolean retryable = error != null || response.statusCode() == 429 || response.statusCode() >= 500;
+            if (retryable && attempt < options.maxRetries) {
+                schedule(() -> dispatch(live, attempt + 1), backoffMillis(attempt), TimeUnit.MILLISECONDS, live);
+            } else {
+                failBatch(live, error != null ? error : new IOException("Inference endpoint returned HTTP " + response.statusCode()));
+            }
+        });
+    }
+    
+    private void schedule(Runnable task, long delay, TimeUnit unit, List<PendingCall> batch) {
+        try {
+            scheduler.schedule(task, delay, unit);
+        } catch (RuntimeException e) {
+            failBatch(batch, new IllegalStateException("Inference backend is closed", e));
+        }
+    }
+    
+    /**
+     * Exponential backoff, jittered uniformly between 0.5x and 1.5x of base * 2^attempt
+     */
+    private long backoffMillis(int attempt) {
+        long delay = options.retryBaseDelayMillis << Math.min(attempt, 16);
+        return (long) (delay * (0.5 + ThreadLocalRandom.current().nextDouble()));
+    }
+    
+    private void completeBatch(List<PendingCall> batch, String body) {
+        String[] lines = body.split("\n");
+        if (lines.length < batch.size()) {
+            failBatch(batch, new IOException("Expected " + batch.size() + " predictions, got " + lines.length));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String line = lines[i];
+            if (line.startsWith(ERROR_PREFIX)) {
+                // Only this item was rejected; the rest of the batch stands
+                batch.get(i).future.completeExceptionally(
+                        new IOException("Prediction rejected: " + decodeText(line.substring(ERROR_PREFIX.length()))));
+                continue;
+            }
+            try {
+                batch.get(i).future.complete(decodeResponse(line));
+            } catch (RuntimeException e) {
+                batch.get(i).future.completeExceptionally(new IOException("Malformed prediction: " + line, e));
+            }
+        }
+    }
+    
+    private static void failBatch(List<PendingCall> batch, Throwable error) {
+        for (PendingCall call : batch) {
+            call.future.completeExceptionally(error);
+        }
+    }
+    
+    @Override
+    public void close() {
+        List<PendingCall> batch;
+        synchronized (lock) {
+            closed = true;
+            batch = drainPending();
+        }
+        scheduler.shutdownNow();
+        failBatch(batch, new IllegalStateException("Inference backend is closed"));
+    }
+    
+    static String encodeRequests(List<PendingCall> batch) {
+        StringBuilder body = new StringBuilder(batch.size() * 64);
+        for (PendingCall call : batch) {
+            InferenceRequest r = call.request;
+            body.append(encodeText(r.getSymbol())).append(',')
+                .append(r.getCurrentNAV()).append(',')
+                .append(r.getTickCount()).append(',')
+                .append(r.getFirstNav()).append(',')
+                .append(r.getLastNav()).append(',')
+                .append(r.getMeanAbsoluteChange()).append('\n');
+        }
+        return body.toString();
+    }
+    
+    static InferenceRequest decodeRequest(String line) {
+        String[] f = line.split(",");
+        return new InferenceRequest(decodeText(f[0]), Double.parseDouble(f[1]), Integer.parseInt(f[2]),
+                                    Double.parseDouble(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5]));
+    }
+    
+    static String encodeResponse(InferenceResponse response) {
+        return response.getPredictedNAV() + "," + response.getConfidence() + "," + encodeText(response.getKeyFactor());
+    }
+    
+    /**
+     * Response line for a request line the server could not predict
+     */
+    static String encodeError(String message) {
+        return ERROR_PREFIX + encodeText(String.valueOf(message));
+    }
+    
+    static InferenceResponse decodeResponse(String line) {
+        String[] f = line.split(",", 3);
+        return new InferenceResponse(Double.parseDouble(f[0]), Integer.parseInt(f[1]), decodeText(f[2]));
+    }
+    
+    private static String encodeText(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+    
+    private static String decodeText(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+    
+    static final class PendingCall {
+        final InferenceRequest request;
+        final CompletableFuture<InferenceResponse> future = new CompletableFuture<>();
+        
+        PendingCall(InferenceRequest request) {
+            this.request = request;
+        }
+    }
+}
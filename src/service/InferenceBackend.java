@@ -0,0 +1,19 @@
+package service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Model that turns stock features into a NAV prediction
+ * Implementations must not block the caller; slow work completes the
+ * returned future later.
+ */
+public interface InferenceBackend {
+    
+    CompletableFuture<InferenceResponse> infer(InferenceRequest request);
+    
+    /**
+     * Release threads and connections held by the backend
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,65 @@
+package service;
+
+import model.NAVStatistics;
+import model.OHLCSeries;
+import model.Resolution;
+import model.Stock;
+
+/**
+ * Features of one stock sent to an inference backend
+ * Captured on the calling thread so the backend never touches the Stock.
+ */
+public class InferenceRequest {
+    private final String symbol;
+    private final double currentNAV;
+    private final int tickCount;
+    private final double firstNav;
+    private final double lastNav;
+    private final double meanAbsoluteChange;
+    
+    public InferenceRequest(String symbol, double currentNAV, int tickCount,
+                            double firstNav, double lastNav, double meanAbsoluteChange) {
+        this.symbol = symbol;
+        this.currentNAV = currentNAV;
+        this.tickCount = tickCount;
+        this.firstNav = firstNav;
+        this.lastNav = lastNav;
+        this.meanAbsoluteChange = meanAbsoluteChange;
+    }
+    
+    /**
+     * Snapshot the features of a stock
+     */
+    public static InferenceRequest of(Stock stock) {
+        NAVStatistics stats = stock.getStatistics();
+        return new InferenceRequest(stock.getSymbol(), stock.getCurrentNAV(), stats.getCount(),
+                                    stats.getFirstNav(), stats.getLastNav(), stats.getMeanAbsoluteChange());
+    }
+    
+    /**
+     * Features of a stock over its newest lookbackBars bars at a resolution,
+     * one bar counting as one tick: first open, last close and mean absolute
+     * close-to-close change
+     */
+    public static InferenceRequest of(Stock stock, Resolution resolution, int lookbackBars) {
+        OHLCSeries bars = stock.getBars(resolution).last(lookbackBars);
+        int count = bars.size();
+        if (count == 0) {
+            return new InferenceRequest(stock.getSymbol(), stock.getCurrentNAV(), 0, 0, 0, 0);
+        }
+        double absChangeSum = 0;
+        for (int i = 1; i < count; i++) {
+            absChangeSum += Math.abs(bars.getClose(i) - bars.getClose(i - 1));
+        }
+        return new InferenceRequest(stock.getSymbol(), stock.getCurrentNAV(), count,
+                                    bars.getOpen(0), bars.getClose(count - 1),
+                                    count > 1 ? absChangeSum / (count - 1) : 0);
+    }
+    
+    public String getSymbol() { return symbol; }
+    public double getCurrentNAV() { return currentNAV; }
+    public int getTickCount() { return tickCount; }
+    public double getFirstNav() { return firstNav; }
+    public double getLastNav() { return lastNav; }
+    public double getMeanAbsoluteChange() { return meanAbsoluteChange; }
+}
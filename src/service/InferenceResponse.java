@@ -0,0 +1,23 @@
+package service;
+
+/**
+ * Raw model output for one InferenceRequest
+ */
+public class InferenceResponse {
+    private final double predictedNAV;
+    private final int confidence;
+    private final String keyFactor;
+    
+    public InferenceResponse(double predictedNAV, int confidence, String keyFactor) {
+        this.predictedNAV = predictedNAV;
+        this.confidence = confidence;
+        this.keyFactor = keyFactor;
+    }
+    
+    public double getPredictedNAV() { return predictedNAV; }
+    
+    /** Confidence level in percent */
+    public int getConfidence() { return confidence; }
+    
+    public String getKeyFactor() { return keyFactor; }
+}
@@ -0,0 +1,51 @@
+package service;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process mock model used when no remote endpoint is configured
+ * In a real application, this would be replaced by Google's Gemini API
+ */
+public class LocalInferenceBackend implements InferenceBackend {
+    private static final String[] MARKET_FACTORS = {
+        "market volatility", "economic indicators", "sector performance", 
+        "company fundamentals", "technical analysis", "global market trends"
+    };
+    
+    @Override
+    public CompletableFuture<InferenceResponse> infer(InferenceRequest request) {
+        return CompletableFuture.completedFuture(predict(request));
+    }
+    
+    /**
+     * Synchronous mock prediction
+     */
+    public InferenceResponse predict(InferenceRequest request) {
+        Random random = ThreadLocalRandom.current();
+        double predictedNAV = generatePredictedNAV(request.getCurrentNAV(), random);
+        int confidence = 60 + random.nextInt(35); // 60-95% confidence
+        String factor = MARKET_FACTORS[random.nextInt(MARKET_FACTORS.length)];
+        return new InferenceResponse(predictedNAV, confidence, factor);
+    }
+    
+    private double generatePredictedNAV(double currentNAV, Random random) {
+        // Mock prediction logic
+        double trendFactor = 0.95 + (random.nextDouble() * 0.1); // ±5% change
+        
+        // Add some randomness based on volatility
+        double prediction = currentNAV * trendFactor;
+        
+        // Ensure prediction is within reasonable bounds
+        double maxChange = currentNAV * 0.15; // Max 15% change
+        double change = prediction - currentNAV;
+        
+        if (Math.abs(change) > maxChange) {
+            change = change > 0 ? maxChange : -maxChange;
+            prediction = currentNAV + change;
+        }
+        
+        return Math.max(1.0, prediction); // Minimum NAV of ₹1
+    }
+}
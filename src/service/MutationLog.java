@@ -0,0 +1,345 @@
+package service;
+
+import model.NAVHistory;
+import model.NAVSeries;
+import model.Stock;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of portfolio mutations: adds, removes and threshold changes
+ * Each record is length-prefixed and CRC32-checked. Logging a record only
+ * appends it to a memory buffer, in the order of the calls, and returns its
+ * position; sync(position) then writes and forces everything appended up to
+ * there. Callers append while holding their own locks and sync after
+ * releasing them, so nobody waits on the disk while holding them, and one
+ * force covers every record appended while the previous one ran. The log
+ * is split into generations, one file each; a snapshot rolls over to a new
+ * generation and everything older is deleted once the snapshot is safely
+ * on disk. Replaying is idempotent, so records that a snapshot already
+ * reflects can be applied again.
+ */
+public class MutationLog implements AutoCloseable {
+    private static final String SUFFIX = ".wal";
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte THRESHOLDS = 3;
+    
+    private final Path directory;
+    private final Object ioLock = new Object(); // Taken before this, never after
+    
+    // Guarded by this
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private FileChannel channel;
+    private long generation;
+    private long recordCount;
+    
+    // Guarded by ioLock
+    private ByteBuffer spare = ByteBuffer.allocate(4096);
+    private long syncedCount;
+    
+    /**
+     * Start appending to a new generation file in the directory
+     */
+    public MutationLog(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.generation = generation;
+        this.channel = open(directory, generation);
+    }
+    
+    /**
+     * Log a new stock with its initial NAV and history, so that replay
+     * recreates it as it was added even if no snapshot was taken since;
+     * tickSequence is where its ticks in the tick log start to follow that
+     * history. Returns the position to sync.
+     */
+    public synchronized long logAdd(int id, String name, String symbol, double currentNAV, NAVSeries history,
+                                    long tickSequence) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        int ticks = history.size();
+        ByteBuffer record = begin(ADD, id, 8 + nameBytes.length + symbolBytes.length + 20 + ticks * 16);
+        record.putInt(nameBytes.length).put(nameBytes);
+        record.putInt(symbolBytes.length).put(symbolBytes);
+        record.putDouble(currentNAV).putInt(ticks);
+        for (int i = 0; i < ticks; i++) {
+            record.putLong(history.getTimestamp(i)).putDouble(history.getNav(i));
+        }
+        record.putLong(tickSequence);
+        return append();
+    }
+    
+    /**
+     * Log a removed stock; returns the position to sync
+     */
+    public synchronized long logRemove(int id) {
+        begin(REMOVE, id, 0);
+        return append();
+    }
+    
+    /**
+     * Log both thresholds of a stock as one record; returns the position to sync
+     */
+    public synchronized long logThresholds(int id, double buyThreshold, double sellThreshold) {
+        begin(THRESHOLDS, id, 16).putDouble(buyThreshold).putDouble(sellThreshold);
+        return append();
+    }
+    
+    /**
+     * Write and force every record up to the given position; returns at
+     * once if an earlier sync already covered it
+     */
+    public void sync(long position) {
+        synchronized (ioLock) {
+            if (syncedCount < position) {
+                flush();
+            }
+        }
+    }
+    
+    // Caller must hold ioLock
+    private void flush() {
+        ByteBuffer out;
+        FileChannel target;
+        long count;
+        synchronized (this) {
+            out = pending;
+            pending = spare;
+            spare = out;
+            target = channel;
+            count = recordCount;
+        }
+        out.flip();
+        try {
+            if (out.hasRemaining()) {
+                while (out.hasRemaining()) {
+                    target.write(out);
+                }
+                target.force(false);
+            }
+            syncedCount = count;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write mutation log " + generation, e);
+        } finally {
+            out.clear();
+        }
+    }
+    
+    private ByteBuffer begin(byte type, int id, int bodyBytes) {
+        int needed = RECORD_HEADER_BYTES + 5 + bodyBytes;
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        buffer.clear();
+        buffer.position(RECORD_HEADER_BYTES);
+        return buffer.put(type).putInt(id);
+    }
+    
+    private long append() {
+        int length = buffer.position() - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER_BYTES, length);
+        buffer.putInt(0, length);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        if (pending.remaining() < buffer.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + buffer.remaining()));
+            pending.flip();
+            pending = grown.put(pending);
+        }
+        pending.put(buffer);
+        return ++recordCount;
+    }
+    
+    /**
+     * Close the current generation and continue in the next one; returns the
+     * new generation. Records logged before this call are all in older files.
+     */
+    public long rollover() throws IOException {
+        synchronized (ioLock) {
+            flush();
+            synchronized (this) {
+                // Records appended since the flush go to the new generation
+                FileChannel next = open(directory, generation + 1);
+                channel.close();
+                channel = next;
+                return ++generation;
+            }
+        }
+    }
+    
+    /**
+     * Delete the generation files older than the given one
+     */
+    public void deleteBefore(long generation) throws IOException {
+        for (Path file : generationFiles(directory)) {
+            if (generationOf(file) < generation) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    public synchronized long getGeneration() { return generation; }
+    
+    /** Records logged by this instance */
+    public synchronized long getRecordCount() { return recordCount; }
+    
+    /**
+     * Sync whatever is still buffered, then close the current generation
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (ioLock) {
+            flush();
+            synchronized (this) {
+                channel.close();
+            }
+        }
+    }
+    
+    private static FileChannel open(Path directory, long generation) throws IOException {
+        Path file = directory.resolve(String.format(Locale.ROOT, "%016d%s", generation, SUFFIX));
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    /**
+     * Newest generation present in the directory, -1 if there is none
+     */
+    public static long latestGeneration(Path directory) throws IOException {
+        List<Path> files = generationFiles(directory);
+        return files.isEmpty() ? -1 : generationOf(files.get(files.size() - 1));
+    }
+    
+    /**
+     * Apply the records of every generation >= fromGeneration to the service,
+     * in order. Reading a file stops at its first torn or corrupt record.
+     * The tick log sequence of each stock re-added goes into tickSequences.
+     * Returns the number of records applied.
+     */
+    public static long replay(Path directory, long fromGeneration, StockService service,
+                              Map<Integer, Long> tickSequences) throws IOException {
+        long applied = 0;
+        for (Path file : generationFiles(directory)) {
+            if (generationOf(file) >= fromGeneration) {
+                applied += replayFile(file, service, tickSequences);
+            }
+        }
+        return applied;
+    }
+    
+    private static long replayFile(Path file, StockService service, Map<Integer, Long> tickSequences)
+            throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        long applied = 0;
+        while (in.remaining() >= RECORD_HEADER_BYTES) {
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length < 5 || length > in.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(in.array(), in.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            ByteBuffer record = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+            record.limit(length);
+            in.position(in.position() + length);
+            apply(record, service, tickSequences);
+            applied++;
+        }
+        return applied;
+    }
+    
+    // Each case tolerates state the snapshot already reflects
+    private static void apply(ByteBuffer record, StockService service, Map<Integer, Long> tickSequences) {
+        byte type = record.get();
+        int id = record.getInt();
+        Stock stock = service.getStock(id);
+        switch (type) {
+            case ADD:
+                String name = readString(record);
+                String symbol = readString(record);
+                if (stock == null) {
+                    service.restoreStock(readAddedStock(record, id, name, symbol));
+                    if (record.remaining() >= Long.BYTES) {
+                        tickSequences.put(id, record.getLong());
+                    }
+                }
+                break;
+            case REMOVE:
+                if (stock != null) {
+                    service.removeStock(stock.getName());
+                }
+                service.reserveIds(id + 1);
+                break;
+            case THRESHOLDS:
+                double buyThreshold = record.getDouble();
+                double sellThreshold = record.getDouble();
+                if (stock != null) {
+                    stock.setThresholds(buyThreshold, sellThreshold);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown mutation record type " + type);
+        }
+    }
+    
+    // Records written before the initial NAV was logged end after the symbol
+    private static Stock readAddedStock(ByteBuffer record, int id, String name, String symbol) {
+        if (!record.hasRemaining()) {
+            return new Stock(id, name, symbol);
+        }
+        double currentNAV = record.getDouble();
+        int ticks = record.getInt();
+        long[] timestamps = new long[ticks];
+        double[] navs = new double[ticks];
+        for (int i = 0; i < ticks; i++) {
+            timestamps[i] = record.getLong();
+            navs[i] = record.getDouble();
+        }
+        return new Stock(id, name, symbol, currentNAV, 0, 0, new NAVHistory(navs, timestamps, ticks));
+    }
+    
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static List<Path> generationFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(generationOf(a), generationOf(b)));
+        return files;
+    }
+    
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,449 @@
+package service;
+
+import model.NAVHistory;
+import model.NAVStatistics;
+import model.OHLCBars;
+import model.OHLCSeries;
+import model.Resolution;
+import model.Stock;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary snapshot of a whole StockService
+ * Layout, little-endian: a header {magic, version, mutation log generation,
+ * id capacity, stock count}, then per stock {id, tick count, current NAV,
+ * buy and sell thresholds, name, symbol, tick log sequence, NAVs,
+ * timestamps, statistics, bars per resolution}, then a CRC32 of everything
+ * before it. Statistics and bars are saved since they also cover trimmed
+ * ticks; version 1 files lack them and get both rebuilt from the ticks.
+ * The tick log sequence (version 3) is where the stock's logged ticks
+ * stop being part of the snapshot; older files have none. Histories move with bulk
+ * DoubleBuffer/LongBuffer transfers in both directions, spilled ticks are
+ * streamed without being reloaded, and restored arrays are adopted by
+ * NAVHistory as they are. Files are written under a temporary name and
+ * atomically renamed into place, so a reader never sees a partial snapshot.
+ */
+final class PortfolioSnapshot {
+    static final int MAGIC = 0x50534E50; // "PSNP"
+    static final int VERSION = 3;
+    private static final int HEADER_BYTES = 24;
+    private static final int STOCK_HEADER_BYTES = 40;
+    private static final int TICK_SEQUENCE_BYTES = Long.BYTES;
+    private static final int STATISTICS_BYTES = Integer.BYTES + 7 * Double.BYTES;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int CHUNK_TICKS = 8192;
+    
+    /**
+     * One stock's state, read under its monitor so NAV, thresholds and
+     * history agree with each other. Ticks are logged under the same
+     * monitor, so the log's next sequence read there splits the stock's
+     * logged ticks exactly into those in the history and those after it.
+     */
+    static final class Entry {
+        final int id;
+        final String name;
+        final String symbol;
+        final double currentNAV;
+        final double buyThreshold;
+        final double sellThreshold;
+        final NAVHistory.Image history;
+        final long tickSequence;
+        
+        Entry(Stock stock, TickLog tickLog) {
+            synchronized (stock) {
+                id = stock.getId();
+                name = stock.getName();
+                symbol = stock.getSymbol();
+                currentNAV = stock.getCurrentNAV();
+                buyThreshold = stock.getBuyThreshold();
+                sellThreshold = stock.getSellThreshold();
+                history = stock.getHistoryStore().image();
+                tickSequence = tickLog == null ? 0 : tickLog.getNextSequence();
+            }
+        }
+    }
+    
+    /**
+     * Capture of the portfolio; history images share the live arrays, so
+     * this is cheap enough to take while ticks keep flowing
+     */
+    static final class Capture {
+        final long generation;
+        final int idCapacity;
+        final List<Entry> entries;
+        
+        Capture(long generation, int idCapacity, List<Entry> entries) {
+            this.generation = generation;
+            this.idCapacity = idCapacity;
+            this.entries = entries;
+        }
+    }
+    
+    private PortfolioSnapshot() {
+    }
+    
+    static Capture capture(StockService service, long generation) {
+        List<Stock> stocks = service.getAllStocks();
+        List<Entry> entries = new ArrayList<>(stocks.size());
+        TickLog tickLog = service.getTickLog();
+        int idCapacity = 0;
+        for (Stock stock : stocks) {
+            entries.add(new Entry(stock, tickLog));
+            idCapacity = Math.max(idCapacity, stock.getId() + 1);
+        }
+        return new Capture(generation, Math.max(idCapacity, service.getIdCapacity()), entries);
+    }
+    
+    /**
+     * Write the capture to file atomically; returns the snapshot size in bytes
+     */
+    static long write(Path file, Capture capture) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long bytes;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer out = new Writer(channel);
+            out.require(HEADER_BYTES);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putLong(capture.generation)
+                      .putInt(capture.idCapacity).putInt(capture.entries.size());
+            for (Entry entry : capture.entries) {
+                byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+                byte[] symbol = entry.symbol.getBytes(StandardCharsets.UTF_8);
+                out.require(STOCK_HEADER_BYTES);
+                out.buffer.putInt(entry.id).putInt(entry.history.size())
+                          .putDouble(entry.currentNAV).putDouble(entry.buyThreshold).putDouble(entry.sellThreshold)
+                          .putInt(name.length).putInt(symbol.length);
+                out.putBytes(name);
+                out.putBytes(symbol);
+                out.require(TICK_SEQUENCE_BYTES);
+                out.buffer.putLong(entry.tickSequence);
+                out.putHistory(entry.history);
+                out.putStatistics(entry.history.getStatistics());
+                for (Resolution resolution : Resolution.values()) {
+                    out.putBars(entry.history.getBars(resolution));
+                }
+            }
+            bytes = out.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(file.toAbsolutePath().getParent());
+        return bytes;
+    }
+    
+    // Makes the rename itself durable; not every platform can open a directory
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+    
+    /**
+     * Restore every stock of the snapshot into the service; returns the
+     * mutation log generation to replay from. Each stock's tick log
+     * sequence to replay from goes into tickSequences by id.
+     */
+    static long read(Path file, StockService service, Map<Integer, Long> tickSequences) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Reader in = new Reader(channel);
+            in.require(HEADER_BYTES);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a portfolio snapshot: " + file);
+            }
+            int version = in.buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported portfolio snapshot version " + version + ": " + file);
+            }
+            long generation = in.buffer.getLong();
+            int idCapacity = in.buffer.getInt();
+            int count = in.buffer.getInt();
+            
+            List<Stock> stocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.require(STOCK_HEADER_BYTES);
+                int id = in.buffer.getInt();
+                int ticks = in.buffer.getInt();
+                double currentNAV = in.buffer.getDouble();
+                double buyThreshold = in.buffer.getDouble();
+                double sellThreshold = in.buffer.getDouble();
+                int nameLength = in.buffer.getInt();
+                int symbolLength = in.buffer.getInt();
+                String name = in.getString(nameLength);
+                String symbol = in.getString(symbolLength);
+                if (version >= 3) {
+                    in.require(TICK_SEQUENCE_BYTES);
+                    tickSequences.put(id, in.buffer.getLong());
+                }
+                double[] navs = new double[ticks];
+                long[] timestamps = new long[ticks];
+                in.getDoubles(navs);
+                in.getLongs(timestamps);
+                NAVHistory history;
+                if (version == 1) {
+                    history = new NAVHistory(navs, timestamps, ticks);
+                } else {
+                    NAVStatistics statistics = in.getStatistics();
+                    OHLCBars[] bars = new OHLCBars[Resolution.values().length];
+                    for (Resolution resolution : Resolution.values()) {
+                        bars[resolution.ordinal()] = in.getBars(resolution);
+                    }
+                    history = new NAVHistory(navs, timestamps, ticks, statistics, bars);
+                }
+                stocks.add(new Stock(id, name, symbol, currentNAV, buyThreshold, sellThreshold, history));
+            }
+            in.verifyChecksum(file);
+            
+            // Nothing is registered until the whole file has checked out
+            for (Stock stock : stocks) {
+                service.restoreStock(stock);
+            }
+            service.reserveIds(idCapacity);
+            return generation;
+        }
+    }
+    
+    /**
+     * Buffered channel writer that checksums everything it flushes
+     */
+    private static final class Writer {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+        final double[] navs = new double[CHUNK_TICKS];
+        final long[] timestamps = new long[CHUNK_TICKS];
+        long written;
+        
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        void putBytes(byte[] bytes) throws IOException {
+            for (int done = 0; done < bytes.length; ) {
+                require(1);
+                int n = Math.min(bytes.length - done, buffer.remaining());
+                buffer.put(bytes, done, n);
+                done += n;
+            }
+        }
+        
+        // Streams through scratch arrays: all NAVs, then all timestamps
+        void putHistory(NAVHistory.Image history) throws IOException {
+            int size = history.size();
+            for (int done = 0; done < size; ) {
+                require(Double.BYTES);
+                int n = Math.min(Math.min(size - done, buffer.remaining() / Double.BYTES), CHUNK_TICKS);
+                history.copyTo(done, done + n, navs, timestamps, 0);
+                buffer.asDoubleBuffer().put(navs, 0, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                done += n;
+            }
+            for (int done = 0; done < size; ) {
+                require(Long.BYTES);
+                int n = Math.min(Math.min(size - done, buffer.remaining() / Long.BYTES), CHUNK_TICKS);
+                history.copyTo(done, done + n, navs, timestamps, 0);
+                buffer.asLongBuffer().put(timestamps, 0, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                done += n;
+            }
+        }
+        
+        void putStatistics(NAVStatistics statistics) throws IOException {
+            require(STATISTICS_BYTES);
+            buffer.putInt(statistics.getCount())
+                  .putDouble(statistics.getFirstNav()).putDouble(statistics.getLastNav())
+                  .putDouble(statistics.getMinNav()).putDouble(statistics.getMaxNav())
+                  .putDouble(statistics.getMeanChange()).putDouble(statistics.getChangeVariance())
+                  .putDouble(statistics.getMeanAbsoluteChange());
+        }
+        
+        // Column by column like the ticks: starts, opens, highs, lows, closes, tick counts
+        void putBars(OHLCSeries bars) throws IOException {
+            int size = bars.size();
+            require(Integer.BYTES);
+            buffer.putInt(size);
+            for (int i = 0; i < size; i++) {
+                require(Long.BYTES);
+                buffer.putLong(bars.getStart(i));
+            }
+            for (int i = 0; i < size; i++) {
+                require(Double.BYTES);
+                buffer.putDouble(bars.getOpen(i));
+            }
+            for (int i = 0; i < size; i++) {
+                require(Double.BYTES);
+                buffer.putDouble(bars.getHigh(i));
+            }
+            for (int i = 0; i < size; i++) {
+                require(Double.BYTES);
+                buffer.putDouble(bars.getLow(i));
+            }
+            for (int i = 0; i < size; i++) {
+                require(Double.BYTES);
+                buffer.putDouble(bars.getClose(i));
+            }
+            for (int i = 0; i < size; i++) {
+                require(Integer.BYTES);
+                buffer.putInt(bars.getTickCount(i));
+            }
+        }
+        
+        long finish() throws IOException {
+            flush();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            return written;
+        }
+    }
+    
+    /**
+     * Buffered channel reader that checksums everything but the trailer
+     */
+    private static final class Reader {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+        final long dataEnd;
+        long read;
+        
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.dataEnd = channel.size() - Long.BYTES;
+            buffer.limit(0);
+        }
+        
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                long left = dataEnd - read;
+                if (left <= 0) {
+                    throw new EOFException("Portfolio snapshot is truncated");
+                }
+                int start = buffer.position();
+                buffer.limit((int) Math.min(buffer.capacity(), start + left));
+                int n = channel.read(buffer);
+                if (n < 0) {
+                    throw new EOFException("Portfolio snapshot is truncated");
+                }
+                ByteBuffer fresh = buffer.duplicate();
+                fresh.position(start).limit(start + n);
+                crc.update(fresh);
+                read += n;
+            }
+            buffer.flip();
+        }
+        
+        String getString(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            for (int done = 0; done < length; ) {
+                require(1);
+                int n = Math.min(length - done, buffer.remaining());
+                buffer.get(bytes, done, n);
+                done += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        void getDoubles(double[] target) throws IOException {
+            for (int done = 0; done < target.length; ) {
+                require(Double.BYTES);
+                int n = Math.min(target.length - done, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().get(target, done, n);
+                buffer.position(buffer.position() + n * Double.BYTES);
+                done += n;
+            }
+        }
+        
+        void getLongs(long[] target) throws IOException {
+            for (int done = 0; done < target.length; ) {
+                require(Long.BYTES);
+                int n = Math.min(target.length - done, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().get(target, done, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                done += n;
+            }
+        }
+        
+        void getInts(int[] target) throws IOException {
+            for (int done = 0; done < target.length; ) {
+                require(Integer.BYTES);
+                int n = Math.min(target.length - done, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(target, done, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                done += n;
+            }
+        }
+        
+        NAVStatistics getStatistics() throws IOException {
+            require(STATISTICS_BYTES);
+            return new NAVStatistics(buffer.getInt(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                                     buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        }
+        
+        OHLCBars getBars(Resolution resolution) throws IOException {
+            require(Integer.BYTES);
+            int size = buffer.getInt();
+            long[] starts = new long[size];
+            double[] opens = new double[size];
+            double[] highs = new double[size];
+            double[] lows = new double[size];
+            double[] closes = new double[size];
+            int[] counts = new int[size];
+            getLongs(starts);
+            getDoubles(opens);
+            getDoubles(highs);
+            getDoubles(lows);
+            getDoubles(closes);
+            getInts(counts);
+            return new OHLCBars(resolution, starts, opens, highs, lows, closes, counts, size);
+        }
+        
+        void verifyChecksum(Path file) throws IOException {
+            if (buffer.hasRemaining() || read != dataEnd) {
+                throw new IOException("Trailing data in portfolio snapshot: " + file);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (trailer.hasRemaining() && channel.read(trailer, dataEnd + trailer.position()) > 0) {
+                // Keep reading
+            }
+            if (trailer.hasRemaining() || trailer.getLong(0) != crc.getValue()) {
+                throw new IOException("Portfolio snapshot checksum mismatch: " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists a StockService as a binary snapshot plus a mutation log
+ * Opening the store restores the last snapshot with bulk reads and replays
+ * the adds, removes and threshold changes logged since, then logs every
+ * further mutation. Snapshots are captured and written on a background
+ * thread; each one starts a new log generation and deletes the older ones
+ * once it is on disk. NAV ticks between snapshots are not part of the
+ * mutation log; open the store with a TickLog to keep those durable. It is
+ * replayed after the mutation log, each stock from where its snapshot or
+ * add record left off, and segments a snapshot covers are deleted.
+ */
+public class PortfolioStore implements AutoCloseable {
+    public static final String SNAPSHOT_FILE = "portfolio.snapshot";
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+    
+    private final Path directory;
+    private final ScheduledExecutorService writer;
+    private final Object snapshotLock = new Object(); // Serializes snapshots
+    private StockService service;
+    private MutationLog mutationLog;
+    private TickLog tickLog;
+    private volatile long lastSnapshotBytes;
+    private volatile long lastSnapshotMillis;
+    private boolean closing;
+    private boolean closed;
+    
+    public PortfolioStore(Path directory) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Restore the persisted portfolio into an empty service and log its
+     * mutations from now on; returns false if there was nothing to restore
+     */
+    public boolean open(StockService service) throws IOException {
+        return open(service, null);
+    }
+    
+    /**
+     * Restore the persisted portfolio plus the ticks logged since into an
+     * empty service, then log its mutations and ticks from now on. The tick
+     * log stays owned by the caller and is detached again on close.
+     */
+    public synchronized boolean open(StockService service, TickLog tickLog) throws IOException {
+        if (this.service != null) {
+            throw new IllegalStateException("Portfolio store is already open");
+        }
+        Files.createDirectories(directory);
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        boolean restored = false;
+        long fromGeneration = 0;
+        Map<Integer, Long> tickSequences = new HashMap<>();
+        if (Files.exists(snapshot)) {
+            fromGeneration = PortfolioSnapshot.read(snapshot, service, tickSequences);
+            restored = true;
+        }
+        restored |= MutationLog.replay(directory, fromGeneration, service, tickSequences) > 0;
+        if (tickLog != null) {
+            service.replayTicks(tickLog, tickSequences);
+            service.setTickLog(tickLog);
+        }
+        
+        // Start a fresh generation so nothing is appended after a torn tail
+        long generation = Math.max(fromGeneration, MutationLog.latestGeneration(directory) + 1);
+        this.mutationLog = new MutationLog(directory, generation);
+        this.tickLog = tickLog;
+        this.service = service;
+        service.setMutationLog(mutationLog);
+        return restored;
+    }
+    
+    /**
+     * Write a snapshot now on the calling thread; returns its size in bytes
+     */
+    public long snapshot() throws IOException {
+        MutationLog log;
+        StockService source;
+        TickLog ticks;
+        synchronized (this) {
+            if (service == null || closed) {
+                throw new IllegalStateException("Portfolio store is not open");
+            }
+            log = mutationLog;
+            source = service;
+            ticks = tickLog;
+        }
+        synchronized (snapshotLock) {
+            // Only the rollover holds the log's monitor: mutators log while
+            // holding the locks the capture takes, so holding it across the
+            // capture would deadlock. Mutations logged after the rollover
+            // may also be in the capture, which replay tolerates.
+            long start = System.nanoTime();
+            long generation = log.rollover();
+            // Every stock's ticks below this are in the capture
+            long coveredTicks = ticks == null ? 0 : ticks.getNextSequence();
+            PortfolioSnapshot.Capture capture = PortfolioSnapshot.capture(source, generation);
+            long bytes = PortfolioSnapshot.write(directory.resolve(SNAPSHOT_FILE), capture);
+            log.deleteBefore(generation);
+            if (ticks != null) {
+                ticks.deleteBefore(coveredTicks);
+            }
+            lastSnapshotBytes = bytes;
+            lastSnapshotMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return bytes;
+        }
+    }
+    
+    /**
+     * Capture and write a snapshot on the background thread
+     */
+    public CompletableFuture<Long> snapshotAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return snapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, writer);
+    }
+    
+    /**
+     * Snapshot in the background every interval until the store is closed
+     */
+    public void startPeriodicSnapshots(long intervalMillis) {
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                // The mutation log still has everything; retried next interval
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public Path getDirectory() { return directory; }
+    
+    /** Size of the last snapshot written, 0 before the first one */
+    public long getLastSnapshotBytes() { return lastSnapshotBytes; }
+    
+    /** Capture plus write time of the last snapshot */
+    public long getLastSnapshotMillis() { return lastSnapshotMillis; }
+    
+    /**
+     * Write a final snapshot, then stop logging; safe to call more than once
+     * and from several threads, only the first call writes
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+        }
+        writer.shutdown(); // Periodic snapshots stop
+        try {
+            // One already running finishes before the final snapshot starts
+            writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (service != null) {
+                snapshot();
+            }
+        } finally {
+            synchronized (this) {
+                closed = true;
+                if (service != null) {
+                    service.setMutationLog(null);
+                    if (tickLog != null) {
+                        service.setTickLog(null);
+                    }
+                    mutationLog.close();
+                }
+            }
+        }
+    }
+}
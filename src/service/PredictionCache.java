@@ -0,0 +1,182 @@
+package service;
+
+import model.Stock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU/TTL cache of AI predictions, one entry per stock.
+ * An entry is only served while the stock's history version and thresholds
+ * match the ones it was computed from and its TTL has not run out.
+ * Concurrent misses for the same stock and version collapse into a single
+ * computation (single-flight); the other callers wait for its result.
+ */
+public class PredictionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final long DEFAULT_TTL_MILLIS = 60_000;
+    
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<Stock, CachedPrediction> entries;
+    private final ConcurrentHashMap<Key, CompletableFuture<PredictionResult>> inFlight;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    
+    public PredictionCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+    
+    public PredictionCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.inFlight = new ConcurrentHashMap<>();
+        this.entries = new LinkedHashMap<Stock, CachedPrediction>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Stock, CachedPrediction> eldest) {
+                if (size() > PredictionCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Cached prediction for the stock, computing it at most once per
+     * history version when missing or stale
+     */
+    public CompletableFuture<PredictionResult> getAsync(Stock stock,
+                                                        Function<Stock, CompletableFuture<PredictionResult>> compute) {
+        Key key = new Key(stock);
+        PredictionResult cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        CompletableFuture<PredictionResult> flight = new CompletableFuture<>();
+        CompletableFuture<PredictionResult> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            hits.increment(); // Served by another caller's computation
+            return leader;
+        }
+        
+        // A flight for this key may have finished between lookup and putIfAbsent
+        cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            inFlight.remove(key, flight);
+            flight.complete(cached);
+            return flight;
+        }
+        
+        misses.increment();
+        CompletableFuture<PredictionResult> computation;
+        try {
+            computation = compute.apply(stock);
+        } catch (RuntimeException e) {
+            computation = new CompletableFuture<>();
+            computation.completeExceptionally(e);
+        }
+        computation.whenComplete((result, error) -> {
+            if (error == null) {
+                store(key, result);
+            }
+            inFlight.remove(key, flight);
+            if (error == null) {
+                flight.complete(result);
+            } else {
+                flight.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        return flight;
+    }
+    
+    private synchronized PredictionResult lookup(Key key) {
+        CachedPrediction entry = entries.get(key.stock);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            entries.remove(key.stock);
+            evictions.increment();
+            return null;
+        }
+        return entry.key.equals(key) ? entry.result : null;
+    }
+    
+    private synchronized void store(Key key, PredictionResult result) {
+        entries.put(key.stock, new CachedPrediction(key, result, System.currentTimeMillis() + ttlMillis));
+    }
+    
+    /**
+     * Drop every cached prediction
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    public synchronized int size() { return entries.size(); }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    
+    @Override
+    public String toString() {
+        return String.format("PredictionCache[size=%d, hits=%d, misses=%d, evictions=%d]",
+                             size(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+    
+    /**
+     * Identifies the inputs a prediction was computed from
+     */
+    private static final class Key {
+        private final Stock stock;
+        private final long historyVersion;
+        private final double buyThreshold;
+        private final double sellThreshold;
+        
+        Key(Stock stock) {
+            this.stock = stock;
+            this.historyVersion = stock.getHistoryVersion();
+            this.buyThreshold = stock.getBuyThreshold();
+            this.sellThreshold = stock.getSellThreshold();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return stock == other.stock
+                    && historyVersion == other.historyVersion
+                    && Double.compare(buyThreshold, other.buyThreshold) == 0
+                    && Double.compare(sellThreshold, other.sellThreshold) == 0;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(stock) + Long.hashCode(historyVersion);
+        }
+    }
+    
+    private static final class CachedPrediction {
+        private final Key key;
+        private final PredictionResult result;
+        private final long expiresAt;
+        
+        CachedPrediction(Key key, PredictionResult result, long expiresAt) {
+            this.key = key;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
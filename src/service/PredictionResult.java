@@ -0,0 +1,131 @@
+package service;
+
+/**
+ * Structured outcome of an AI NAV prediction
+ * Carries only data; turning it into text is left to the caller.
+ */
+public class PredictionResult {
+    
+    /**
+     * Direction of the NAV history from first to last tick
+     */
+    public enum Trend {
+        STRONG_UP, MILD_UP, SIDEWAYS, MILD_DOWN, STRONG_DOWN, INSUFFICIENT_DATA;
+        
+        static Trend of(int ticks, double changePercent) {
+            if (ticks < 2) {
+                return INSUFFICIENT_DATA;
+            } else if (changePercent > 5) {
+                return STRONG_UP;
+            } else if (changePercent > 1) {
+                return MILD_UP;
+            } else if (changePercent < -5) {
+                return STRONG_DOWN;
+            } else if (changePercent < -1) {
+                return MILD_DOWN;
+            } else {
+                return SIDEWAYS;
+            }
+        }
+    }
+    
+    /**
+     * AI recommendation derived from the expected change
+     */
+    public enum Signal {
+        STRONG_BUY, BUY, HOLD, WEAK_SELL, SELL;
+        
+        static Signal of(double expectedChangePercent) {
+            if (expectedChangePercent > 3) {
+                return STRONG_BUY;
+            } else if (expectedChangePercent > 1) {
+                return BUY;
+            } else if (expectedChangePercent < -3) {
+                return SELL;
+            } else if (expectedChangePercent < -1) {
+                return WEAK_SELL;
+            } else {
+                return HOLD;
+            }
+        }
+    }
+    
+    /**
+     * Risk band from the mean absolute tick-to-tick change
+     */
+    public enum RiskBand {
+        LOW, MODERATE, HIGH, VERY_HIGH;
+        
+        static RiskBand of(double volatility) {
+            if (volatility < 10) {
+                return LOW;
+            } else if (volatility < 25) {
+                return MODERATE;
+            } else if (volatility < 50) {
+                return HIGH;
+            } else {
+                return VERY_HIGH;
+            }
+        }
+    }
+    
+    private final String stockName;
+    private final String symbol;
+    private final double currentNAV;
+    private final double predictedNAV;
+    private final int confidence;
+    private final Trend trend;
+    private final Signal signal;
+    private final RiskBand riskBand;
+    private final String keyFactor;
+    private final boolean buyThresholdReachable;
+    private final boolean sellThresholdReachable;
+    
+    public PredictionResult(String stockName, String symbol, double currentNAV, double predictedNAV,
+                            int confidence, Trend trend, Signal signal, RiskBand riskBand, String keyFactor,
+                            boolean buyThresholdReachable, boolean sellThresholdReachable) {
+        this.stockName = stockName;
+        this.symbol = symbol;
+        this.currentNAV = currentNAV;
+        this.predictedNAV = predictedNAV;
+        this.confidence = confidence;
+        this.trend = trend;
+        this.signal = signal;
+        this.riskBand = riskBand;
+        this.keyFactor = keyFactor;
+        this.buyThresholdReachable = buyThresholdReachable;
+        this.sellThresholdReachable = sellThresholdReachable;
+    }
+    
+    public String getStockName() { return stockName; }
+    public String getSymbol() { return symbol; }
+    public double getCurrentNAV() { return currentNAV; }
+    public double getPredictedNAV() { return predictedNAV; }
+    
+    /** Confidence level in percent */
+    public int getConfidence() { return confidence; }
+    
+    public Trend getTrend() { return trend; }
+    public Signal getSignal() { return signal; }
+    public RiskBand getRiskBand() { return riskBand; }
+    public String getKeyFactor() { return keyFactor; }
+    
+    /** True if the predicted NAV is at or below the stock's buy threshold */
+    public boolean isBuyThresholdReachable() { return buyThresholdReachable; }
+    
+    /** True if the predicted NAV is at or above the stock's sell threshold */
+    public boolean isSellThresholdReachable() { return sellThresholdReachable; }
+    
+    /**
+     * Expected change from the current NAV, in percent; 0 while the stock has no NAV yet
+     */
+    public double getExpectedChangePercent() {
+        return currentNAV > 0 ? ((predictedNAV - currentNAV) / currentNAV) * 100 : 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f -> %.2f (%s, %d%%, %s risk)",
+                             symbol, currentNAV, predictedNAV, signal, confidence, riskBand);
+    }
+}
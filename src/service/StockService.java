@@ -1,41 +1,129 @@
 package service;
 
+import model.NAVSeries;
+import model.Recommendation;
 import model.Stock;
+import model.StockListener;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Service for managing stocks and NAV data
+ * Stocks are indexed case-insensitively by name and symbol, and by a dense
+ * integer id. Ids are handed out in insertion order and never reused, so
+ * iterating the id table preserves the order stocks were added in.
+ * BUY/SELL/HOLD counts are adjusted on each recommendation transition, so
+ * the market summary never has to scan the portfolio. Transitions caused by
+ * live ticks feed the AlertEngine, which pushes them to subscribers.
+ *
+ * Adds and removes are serialized by a StampedLock write lock. Lookups go
+ * through ConcurrentHashMaps, and reads of the id table are optimistic,
+ * so readers and tick writers never block each other. Per-stock writes
+ * are guarded by the stock itself.
  */
 public class StockService {
-    private List<Stock> stocks;
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private Map<String, Stock> stocksByName;
+    private Map<String, Stock> stocksBySymbol;
+    private Stock[] stocksById;
+    private int nextId;
+    private int stockCount;
+    private final StampedLock structureLock = new StampedLock();
     private Random random;
+    private TickEngine tickEngine;
+    private LongAdder[] recommendationCounts;
+    private StockListener portfolioListener;
+    private final AlertEngine alertEngine;
+    private volatile TickLog tickLog;
+    private volatile MutationLog mutationLog;
+    private volatile boolean replaying; // Replayed ticks are not news, so they raise no alerts
     
     public StockService() {
-        stocks = new ArrayList<>();
+        this(new TickEngine());
+    }
+    
+    public StockService(TickEngine tickEngine) {
+        stocksByName = new ConcurrentHashMap<>();
+        stocksBySymbol = new ConcurrentHashMap<>();
+        stocksById = new Stock[INITIAL_CAPACITY];
         random = new Random();
+        this.tickEngine = tickEngine;
+        recommendationCounts = new LongAdder[Recommendation.values().length];
+        for (int i = 0; i < recommendationCounts.length; i++) {
+            recommendationCounts[i] = new LongAdder();
+        }
+        portfolioListener = new PortfolioListener();
+        alertEngine = new AlertEngine();
     }
     
     /**
      * Add a new stock
      */
     public Stock addStock(String name, String symbol) {
-        // Check if stock already exists
-        for (Stock stock : stocks) {
-            if (stock.getName().equalsIgnoreCase(name) || stock.getSymbol().equalsIgnoreCase(symbol)) {
+        return addStock(name, symbol, true);
+    }
+    
+    /**
+     * Add a new stock; without generated history it starts with no NAV and
+     * an empty history, for callers that load real history themselves
+     */
+    public Stock addStock(String name, String symbol, boolean generateHistory) {
+        String nameKey = key(name);
+        String symbolKey = key(symbol);
+        MutationLog log = mutationLog;
+        long logged = 0;
+        Stock stock;
+        long stamp = structureLock.writeLock();
+        try {
+            // Check if stock already exists
+            if (stocksByName.containsKey(nameKey) || stocksBySymbol.containsKey(symbolKey)) {
                 throw new IllegalArgumentException("Stock with this name or symbol already exists");
             }
+            
+            if (nextId == stocksById.length) {
+                stocksById = Arrays.copyOf(stocksById, stocksById.length * 2);
+            }
+            stock = new Stock(nextId, name, symbol);
+            if (generateHistory) {
+                // Set initial random NAV
+                stock.setCurrentNAV(generateRandomNAV());
+                
+                // Generate some historical data
+                generateHistoricalData(stock);
+            }
+            
+            // Count it before it becomes visible to tick writers
+            recommendationCounts[stock.getRecommendationState().ordinal()].increment();
+            stock.setListener(portfolioListener);
+            logHistory(stock);
+            // Appended before it is visible, so no threshold record can precede it
+            if (log != null) {
+                TickLog ticks = tickLog;
+                logged = log.logAdd(stock.getId(), name, symbol, stock.getCurrentNAV(), stock.getHistory(),
+                                    ticks == null ? 0 : ticks.getNextSequence());
+            }
+            
+            stocksById[nextId++] = stock;
+            stocksByName.put(nameKey, stock);
+            stocksBySymbol.put(symbolKey, stock);
+            stockCount++;
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        // Forced outside the lock; readers and tick passes never wait on the disk
+        if (log != null) {
+            log.sync(logged);
         }
-        
-        Stock stock = new Stock(name, symbol);
-        // Set initial random NAV
-        stock.setCurrentNAV(generateRandomNAV());
-        
-        // Generate some historical data
-        generateHistoricalData(stock);
-        
-        stocks.add(stock);
         return stock;
     }
     
@@ -43,24 +131,201 @@ public class StockService {
      * Remove a stock by name
      */
     public boolean removeStock(String name) {
-        return stocks.removeIf(stock -> stock.getName().equalsIgnoreCase(name));
+        MutationLog log = mutationLog;
+        long logged = 0;
+        long stamp = structureLock.writeLock();
+        try {
+            Stock stock = stocksByName.remove(key(name));
+            if (stock == null) {
+                return false;
+            }
+            
+            stocksBySymbol.remove(key(stock.getSymbol()));
+            stocksById[stock.getId()] = null;
+            stockCount--;
+            
+            // No transition may slip in between detaching and uncounting
+            synchronized (stock) {
+                stock.setListener(null);
+                recommendationCounts[stock.getRecommendationState().ordinal()].decrement();
+            }
+            
+            if (log != null) {
+                logged = log.logRemove(stock.getId());
+            }
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+        if (log != null) {
+            log.sync(logged);
+        }
+        return true;
+    }
+    
+    /**
+     * Set both thresholds of a stock and, with a mutation log attached, have
+     * them on disk as one record before returning. Threshold changes made
+     * directly on a Stock are logged too, but only forced by the next sync.
+     */
+    public void setThresholds(Stock stock, double buyThreshold, double sellThreshold) {
+        stock.setThresholds(buyThreshold, sellThreshold);
+        MutationLog log = mutationLog;
+        if (log != null) {
+            log.sync(log.getRecordCount());
+        }
+    }
+    
+    /**
+     * Register a stock recreated from persisted state under its own id.
+     * Returns false, changing nothing, if the id, name or symbol is taken.
+     * Restores are not written to the mutation log.
+     */
+    boolean restoreStock(Stock stock) {
+        String nameKey = key(stock.getName());
+        String symbolKey = key(stock.getSymbol());
+        int id = stock.getId();
+        long stamp = structureLock.writeLock();
+        try {
+            if (id < 0 || (id < nextId && stocksById[id] != null)
+                    || stocksByName.containsKey(nameKey) || stocksBySymbol.containsKey(symbolKey)) {
+                return false;
+            }
+            
+            if (id >= stocksById.length) {
+                stocksById = Arrays.copyOf(stocksById, Math.max(stocksById.length * 2, id + 1));
+            }
+            recommendationCounts[stock.getRecommendationState().ordinal()].increment();
+            stock.setListener(portfolioListener);
+            
+            stocksById[id] = stock;
+            nextId = Math.max(nextId, id + 1);
+            stocksByName.put(nameKey, stock);
+            stocksBySymbol.put(symbolKey, stock);
+            stockCount++;
+            return true;
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Never hand out ids below the given one, e.g. those of stocks removed
+     * before a snapshot was taken
+     */
+    void reserveIds(int idCapacity) {
+        long stamp = structureLock.writeLock();
+        try {
+            if (idCapacity > stocksById.length) {
+                stocksById = Arrays.copyOf(stocksById, idCapacity);
+            }
+            nextId = Math.max(nextId, idCapacity);
+        } finally {
+            structureLock.unlockWrite(stamp);
+        }
     }
     
     /**
      * Get a stock by name
      */
     public Stock getStock(String name) {
-        return stocks.stream()
-                .filter(stock -> stock.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+        return name == null ? null : stocksByName.get(key(name));
+    }
+    
+    /**
+     * Get a stock by symbol
+     */
+    public Stock getStockBySymbol(String symbol) {
+        return symbol == null ? null : stocksBySymbol.get(key(symbol));
+    }
+    
+    /**
+     * Get a stock by its instrument id, or null if it was removed
+     */
+    public Stock getStock(int id) {
+        long stamp = structureLock.tryOptimisticRead();
+        Stock[] table = stocksById;
+        int count = nextId;
+        if (!structureLock.validate(stamp)) {
+            stamp = structureLock.readLock();
+            try {
+                table = stocksById;
+                count = nextId;
+            } finally {
+                structureLock.unlockRead(stamp);
+            }
+        }
+        return id >= 0 && id < count ? table[id] : null;
     }
     
     /**
      * Get all stocks
      */
     public List<Stock> getAllStocks() {
-        return new ArrayList<>(stocks);
+        long stamp = structureLock.readLock();
+        try {
+            List<Stock> stocks = new ArrayList<>(stockCount);
+            for (int id = 0; id < nextId; id++) {
+                if (stocksById[id] != null) {
+                    stocks.add(stocksById[id]);
+                }
+            }
+            return stocks;
+        } finally {
+            structureLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Number of stocks currently registered
+     */
+    public int getStockCount() {
+        long stamp = structureLock.tryOptimisticRead();
+        int count = stockCount;
+        if (!structureLock.validate(stamp)) {
+            stamp = structureLock.readLock();
+            try {
+                count = stockCount;
+            } finally {
+                structureLock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Number of stocks currently carrying the given recommendation, in O(1)
+     */
+    public long getRecommendationCount(Recommendation recommendation) {
+        return recommendationCounts[recommendation.ordinal()].sum();
+    }
+    
+    /**
+     * Engine pushing BUY/SELL threshold crossings of every registered stock
+     * to its subscribers
+     */
+    public AlertEngine getAlertEngine() {
+        return alertEngine;
+    }
+    
+    /**
+     * Upper bound (exclusive) of the instrument ids handed out so far
+     */
+    public int getIdCapacity() {
+        long stamp = structureLock.tryOptimisticRead();
+        int count = nextId;
+        if (!structureLock.validate(stamp)) {
+            stamp = structureLock.readLock();
+            try {
+                count = nextId;
+            } finally {
+                structureLock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+    
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
     }
     
     /**
@@ -94,35 +359,148 @@ public class StockService {
      * Update NAV for all stocks (simulating real-time data)
      */
     public void updateAllNAVs() {
-        for (Stock stock : stocks) {
-            // Simulate small fluctuations in NAV
-            double currentNAV = stock.getCurrentNAV();
-            double fluctuation = 0.95 + (random.nextDouble() * 0.1); // ±5% change
-            double newNAV = currentNAV * fluctuation;
-            
-            stock.setCurrentNAV(newNAV);
+        updateAllNAVs(random.nextLong());
+    }
+    
+    /**
+     * Update NAV for all stocks in parallel; the same seed over the same
+     * stocks always yields the same NAVs, regardless of thread count
+     */
+    public void updateAllNAVs(long seed) {
+        // Ticks take per-stock locks only, so adds and removes just wait for the pass
+        long stamp = structureLock.readLock();
+        try {
+            tickEngine.apply(stocksById, nextId, seed);
+        } finally {
+            structureLock.unlockRead(stamp);
         }
     }
     
+    /**
+     * Record every future tick of every stock in the given log (null to stop)
+     */
+    public void setTickLog(TickLog tickLog) {
+        this.tickLog = tickLog;
+    }
+    
+    public TickLog getTickLog() {
+        return tickLog;
+    }
+    
+    /**
+     * Record every future add, remove and threshold change in the given
+     * write-ahead log (null to stop)
+     */
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = mutationLog;
+    }
+    
+    /**
+     * Re-apply the ticks recorded in a log to the registered stocks by
+     * instrument id, e.g. at startup before any new ticks flow. Replayed
+     * ticks are not logged again. Returns the number of records applied.
+     */
+    public long replayTicks(TickLog log) throws IOException {
+        return replayTicks(log, null);
+    }
+    
+    /**
+     * Re-apply only the ticks a restore did not cover: for each stock, those
+     * from its sequence in fromSequences on; stocks missing there are
+     * skipped. A null map applies every tick.
+     */
+    public long replayTicks(TickLog log, Map<Integer, Long> fromSequences) throws IOException {
+        TickLog attached = tickLog;
+        tickLog = null;
+        replaying = true;
+        long[] applied = {0};
+        try {
+            log.scan((sequence, id, epochMillis, nav) -> {
+                Stock stock = getStock(id);
+                Long from = fromSequences == null ? Long.valueOf(0) : fromSequences.get(id);
+                if (stock != null && from != null && sequence >= from) {
+                    stock.setCurrentNAV(nav, epochMillis);
+                    applied[0]++;
+                }
+            });
+        } finally {
+            tickLog = attached;
+            replaying = false;
+        }
+        return applied[0];
+    }
+    
+    // History generated before the listener was attached still has to reach the log
+    private void logHistory(Stock stock) {
+        TickLog log = tickLog;
+        if (log == null) {
+            return;
+        }
+        NAVSeries history = stock.getHistory();
+        for (int i = 0; i < history.size(); i++) {
+            log.append(stock.getId(), history.getTimestamp(i), history.getNav(i));
+        }
+    }
+    
+    /**
+     * Bulk-import "symbol,epochMillis,nav" history from a CSV file into the
+     * registered stocks
+     */
+    public HistoryImporter.Result importHistory(Path file) throws IOException {
+        return new HistoryImporter(this).importFile(file);
+    }
+    
     /**
      * Get market summary
      */
     public String getMarketSummary() {
-        if (stocks.isEmpty()) {
+        int stockCount = getStockCount();
+        if (stockCount == 0) {
             return "No stocks in portfolio";
         }
         
-        long buyRecommendations = stocks.stream()
-                .mapToLong(stock -> "BUY".equals(stock.getRecommendation()) ? 1 : 0)
-                .sum();
+        long buyRecommendations = getRecommendationCount(Recommendation.BUY);
+        long sellRecommendations = getRecommendationCount(Recommendation.SELL);
+        long holdRecommendations = getRecommendationCount(Recommendation.HOLD);
         
-        long sellRecommendations = stocks.stream()
-                .mapToLong(stock -> "SELL".equals(stock.getRecommendation()) ? 1 : 0)
-                .sum();
+        return String.format("Portfolio Summary: %d stocks | BUY: %d | SELL: %d | HOLD: %d", 
+                           stockCount, buyRecommendations, sellRecommendations, holdRecommendations);
+    }
+    
+    /**
+     * Keeps the recommendation counters in step with per-stock transitions,
+     * publishes live threshold crossings as alerts and forwards ticks and
+     * threshold changes to the attached logs
+     */
+    private class PortfolioListener implements StockListener {
+        @Override
+        public void onRecommendationChanged(Stock stock, Recommendation previous, Recommendation current) {
+            recommendationCounts[previous.ordinal()].decrement();
+            recommendationCounts[current.ordinal()].increment();
+        }
         
-        long holdRecommendations = stocks.size() - buyRecommendations - sellRecommendations;
+        @Override
+        public void onThresholdCrossed(Stock stock, Recommendation previous, Recommendation current,
+                                       double nav, long epochMillis) {
+            if (!replaying) {
+                alertEngine.publish(stock, previous, current, nav, epochMillis);
+            }
+        }
         
-        return String.format("Portfolio Summary: %d stocks | BUY: %d | SELL: %d | HOLD: %d", 
-                           stocks.size(), buyRecommendations, sellRecommendations, holdRecommendations);
+        @Override
+        public void onTick(Stock stock, double nav, long epochMillis) {
+            TickLog log = tickLog;
+            if (log != null) {
+                log.append(stock.getId(), epochMillis, nav);
+            }
+        }
+        
+        @Override
+        public void onThresholdsChanged(Stock stock) {
+            MutationLog log = mutationLog;
+            if (log != null) {
+                log.logThresholds(stock.getId(), stock.getBuyThreshold(), stock.getSellThreshold());
+            }
+        }
     }
 }
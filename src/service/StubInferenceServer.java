@@ -0,0 +1,106 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process HTTP stand-in for a remote model endpoint
+ * Serves the HttpInferenceBackend wire format on localhost using the mock
+ * model, with optional artificial latency and failure rate, so the remote
+ * client can be exercised and benchmarked offline (see
+ * bench.InferenceBackendBenchmark).
+ */
+public class StubInferenceServer implements AutoCloseable {
+    public static final String PATH = "/v1/predict";
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LocalInferenceBackend model = new LocalInferenceBackend();
+    private final long latencyMillis;
+    private final double failureRate;
+    
+    /**
+     * @param port local port, 0 for any free port
+     * @param latencyMillis delay added to every batch
+     * @param failureRate fraction of batches answered with HTTP 503
+     */
+    public StubInferenceServer(int port, long latencyMillis, double failureRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "stub-inference");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public URI getEndpoint() {
+        InetSocketAddress address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort() + PATH);
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            
+            StringBuilder response = new StringBuilder();
+            for (String line : body.split("\n")) {
+                if (line.isEmpty()) continue;
+                // A bad line gets its own error answer instead of failing the batch
+                try {
+                    InferenceResponse prediction = model.predict(HttpInferenceBackend.decodeRequest(line));
+                    response.append(HttpInferenceBackend.encodeResponse(prediction));
+                } catch (RuntimeException e) {
+                    response.append(HttpInferenceBackend.encodeError(e.getMessage()));
+                }
+                response.append('\n');
+            }
+            byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/csv");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package service;
+
+import model.Recommendation;
+import model.Stock;
+
+/**
+ * Immutable record of a tick's NAV crossing a stock's buy or sell threshold
+ * The recommendation moves from previous to current; the threshold is the
+ * one crossed, so BUY -> HOLD reports the buy threshold the NAV rose above.
+ * One side of the pair is always HOLD: a tick crossing both thresholds is
+ * reported as two alerts.
+ */
+public final class ThresholdAlert {
+    private final Stock stock;
+    private final Recommendation previous;
+    private final Recommendation current;
+    private final double nav;
+    private final double threshold;
+    private final long epochMillis;
+    private final long detectedNanos;
+    
+    public ThresholdAlert(Stock stock, Recommendation previous, Recommendation current,
+                          double nav, double threshold, long epochMillis, long detectedNanos) {
+        this.stock = stock;
+        this.previous = previous;
+        this.current = current;
+        this.nav = nav;
+        this.threshold = threshold;
+        this.epochMillis = epochMillis;
+        this.detectedNanos = detectedNanos;
+    }
+    
+    public Stock getStock() { return stock; }
+    public Recommendation getPrevious() { return previous; }
+    public Recommendation getCurrent() { return current; }
+    
+    /** NAV that caused the crossing */
+    public double getNav() { return nav; }
+    
+    /** The buy or sell threshold that was crossed */
+    public double getThreshold() { return threshold; }
+    
+    /** Timestamp of the tick that caused the crossing */
+    public long getEpochMillis() { return epochMillis; }
+    
+    /** System.nanoTime() when the crossing was detected, for measuring delivery latency */
+    public long getDetectedNanos() { return detectedNanos; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s -> %s @ ₹%.2f (threshold ₹%.2f)",
+                             stock.getSymbol(), previous, current, nav, threshold);
+    }
+}
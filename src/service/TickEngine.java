@@ -0,0 +1,105 @@
+package service;
+
+import model.Stock;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel NAV update engine for StockService.updateAllNAVs
+ * The id table is cut into fixed-size partitions that do not depend on the
+ * pool size. Each partition gets its own SplittableRandom, split from the
+ * seed in partition order, so a seed always produces bit-identical NAVs
+ * whatever the number of worker threads.
+ */
+public class TickEngine {
+    /** Instruments per partition; also the unit of work handed to a worker */
+    public static final int PARTITION_SIZE = 4096;
+    
+    private final ForkJoinPool pool;
+    
+    public TickEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public TickEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Apply one ±5% random tick to every non-null stock in stocks[0, count)
+     */
+    public void apply(Stock[] stocks, int count, long seed) {
+        if (count <= 0) {
+            return;
+        }
+        
+        int partitions = (count + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[partitions];
+        for (int p = 0; p < partitions; p++) {
+            randoms[p] = root.split();
+        }
+        long timestamp = System.currentTimeMillis();
+        
+        PartitionTask task = new PartitionTask(stocks, count, randoms, timestamp, 0, partitions);
+        if (partitions == 1) {
+            task.compute(); // Not worth a hand-off to the pool
+        } else {
+            pool.invoke(task);
+        }
+    }
+    
+    private static void updatePartition(Stock[] stocks, int from, int to, SplittableRandom random, long timestamp) {
+        for (int id = from; id < to; id++) {
+            Stock stock = stocks[id];
+            if (stock == null) continue;
+            
+            tick(stock, random, timestamp);
+        }
+    }
+    
+    /**
+     * Apply one ±5% random tick to a single stock
+     */
+    static void tick(Stock stock, SplittableRandom random, long timestamp) {
+        double fluctuation = 0.95 + (random.nextDouble() * 0.1); // ±5% change
+        stock.applyFluctuation(fluctuation, timestamp);
+    }
+    
+    /**
+     * Splits the partition range in halves until a single partition remains
+     */
+    private static class PartitionTask extends RecursiveAction {
+        private final Stock[] stocks;
+        private final int count;
+        private final SplittableRandom[] randoms;
+        private final long timestamp;
+        private final int fromPartition;
+        private final int toPartition;
+        
+        PartitionTask(Stock[] stocks, int count, SplittableRandom[] randoms, long timestamp,
+                      int fromPartition, int toPartition) {
+            this.stocks = stocks;
+            this.count = count;
+            this.randoms = randoms;
+            this.timestamp = timestamp;
+            this.fromPartition = fromPartition;
+            this.toPartition = toPartition;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toPartition - fromPartition == 1) {
+                int from = fromPartition * PARTITION_SIZE;
+                int to = Math.min(count, from + PARTITION_SIZE);
+                updatePartition(stocks, from, to, randoms[fromPartition], timestamp);
+                return;
+            }
+            
+            int mid = (fromPartition + toPartition) >>> 1;
+            invokeAll(new PartitionTask(stocks, count, randoms, timestamp, fromPartition, mid),
+                      new PartitionTask(stocks, count, randoms, timestamp, mid, toPartition));
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable, append-only log of NAV ticks in memory-mapped segment files
+ * Every record is 24 bytes: instrument id, checksum, epoch millis and NAV.
+ * Writers reserve a sequence number with one atomic increment and write
+ * their record into the mapped segment with absolute puts, publishing the
+ * checksum last, so concurrent tick threads never take a lock. A segment
+ * holds a fixed number of records; the first writer past its end maps the
+ * next one.
+ *
+ * Durability is batched: mapped pages are forced to disk every N records
+ * and/or every M milliseconds, or on sync(). The synced sequence only
+ * advances over records whose writers have finished. After a crash,
+ * reopening the directory validates checksums and continues after the last
+ * intact record; torn or never-written slots are skipped by readers.
+ * Segments whose records are all covered elsewhere, e.g. by a snapshot,
+ * are dropped with deleteBefore.
+ */
+public class TickLog implements AutoCloseable {
+    public static final int RECORD_BYTES = 24;
+    static final int HEADER_BYTES = 16;
+    private static final long MAGIC = 0x5449434B4C4F4731L; // "TICKLOG1"
+    private static final long CHECKSUM_SEED = 0x9E3779B97F4A7C15L;
+    private static final String SUFFIX = ".ticks";
+    private static final VarHandle INT_VIEW =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    /**
+     * Segment size and fsync batching; 0 disables a sync trigger
+     */
+    public static class Options {
+        private int recordsPerSegment = 1 << 22; // 96 MB
+        private int syncEveryRecords = 0;
+        private long syncIntervalMillis = 100;
+        
+        public Options recordsPerSegment(int value) { recordsPerSegment = value; return this; }
+        public Options syncEveryRecords(int value) { syncEveryRecords = value; return this; }
+        public Options syncIntervalMillis(long value) { syncIntervalMillis = value; return this; }
+    }
+    
+    /**
+     * Receives records straight from the mapped segments, without allocating
+     */
+    public interface RecordVisitor {
+        void onRecord(long sequence, int instrumentId, long epochMillis, double nav);
+    }
+    
+    private final Path directory;
+    private final Options options;
+    private final AtomicLong nextSequence;
+    private final AtomicLong syncedSequence;
+    private final ScheduledExecutorService syncer;
+    private final Object segmentLock = new Object();
+    private final Object syncLock = new Object();
+    
+    // Newest segment and the one before it; writers may still be finishing there
+    private volatile Segment current;
+    private Segment previous;
+    private boolean closed;
+    
+    public TickLog(Path directory) throws IOException {
+        this(directory, new Options());
+    }
+    
+    /**
+     * Open or create the log in the directory, recovering after the last
+     * intact record of the newest segment
+     */
+    public TickLog(Path directory, Options options) throws IOException {
+        this.directory = directory;
+        this.options = options;
+        Files.createDirectories(directory);
+        
+        List<Path> segments = segmentFiles(directory);
+        long next = 0;
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            long base = baseSequence(last);
+            long[] end = {base};
+            scanSegment(last, (sequence, id, millis, nav) -> end[0] = sequence + 1);
+            next = end[0];
+        }
+        this.nextSequence = new AtomicLong(next);
+        this.syncedSequence = new AtomicLong(next);
+        this.current = openSegment(next / options.recordsPerSegment);
+        
+        if (options.syncIntervalMillis > 0) {
+            syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tick-log-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, options.syncIntervalMillis,
+                                          options.syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+    
+    /**
+     * Append one tick; returns its sequence number
+     */
+    public long append(int instrumentId, long epochMillis, double nav) {
+        long sequence = nextSequence.getAndIncrement();
+        long index = sequence / options.recordsPerSegment;
+        Segment segment = current;
+        if (segment.index != index) {
+            segment = segmentFor(index);
+        }
+        
+        int offset = HEADER_BYTES + (int) (sequence - segment.base) * RECORD_BYTES;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(offset, instrumentId);
+        buffer.putLong(offset + 8, epochMillis);
+        buffer.putDouble(offset + 16, nav);
+        INT_VIEW.setRelease(buffer, offset + 4, checksum(instrumentId, epochMillis, nav));
+        
+        if (options.syncEveryRecords > 0 && (sequence + 1) % options.syncEveryRecords == 0) {
+            sync();
+        }
+        return sequence;
+    }
+    
+    private Segment segmentFor(long index) {
+        synchronized (segmentLock) {
+            if (closed) {
+                throw new IllegalStateException("Tick log is closed");
+            }
+            Segment segment = current;
+            if (segment.index == index) {
+                return segment;
+            }
+            if (previous != null && previous.index == index) {
+                return previous;
+            }
+            try {
+                if (index < segment.index) {
+                    return openSegment(index); // A writer stalled across two rollovers; map it again
+                }
+                Segment next = openSegment(index);
+                if (previous != null) {
+                    previous.buffer.force(); // Retired; its writers finished long ago
+                }
+                previous = segment;
+                current = next;
+                return next;
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open tick log segment " + index, e);
+            }
+        }
+    }
+    
+    private Segment openSegment(long index) throws IOException {
+        long base = index * options.recordsPerSegment;
+        Path file = directory.resolve(String.format(Locale.ROOT, "%016d%s", base, SUFFIX));
+        long length = HEADER_BYTES + (long) options.recordsPerSegment * RECORD_BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putLong(0, MAGIC);
+            buffer.putLong(8, base);
+            return new Segment(index, base, buffer); // The mapping outlives the channel
+        }
+    }
+    
+    /**
+     * Force everything appended so far to disk
+     */
+    public void sync() {
+        synchronized (syncLock) {
+            long written = syncedSequence.get();
+            long upTo = nextSequence.get();
+            Segment segment = null;
+            while (written < upTo) {
+                long index = written / options.recordsPerSegment;
+                if (segment == null || segment.index != index) {
+                    if (segment != null) {
+                        segment.buffer.force();
+                    }
+                    segment = existingSegment(index);
+                    if (segment == null) {
+                        break;
+                    }
+                }
+                if (!isWritten(segment, written)) {
+                    break; // Still being written; the next sync picks it up
+                }
+                written++;
+            }
+            if (segment != null) {
+                segment.buffer.force();
+            }
+            syncedSequence.set(written);
+        }
+    }
+    
+    // Null when no writer has rolled over into the segment yet
+    private Segment existingSegment(long index) {
+        synchronized (segmentLock) {
+            if (current.index == index) {
+                return current;
+            }
+            if (previous != null && previous.index == index) {
+                return previous;
+            }
+        }
+        return index < current.index ? segmentFor(index) : null;
+    }
+    
+    private static boolean isWritten(Segment segment, long sequence) {
+        int offset = HEADER_BYTES + (int) (sequence - segment.base) * RECORD_BYTES;
+        MappedByteBuffer buffer = segment.buffer;
+        int stored = (int) INT_VIEW.getAcquire(buffer, offset + 4);
+        return stored == checksum(buffer.getInt(offset), buffer.getLong(offset + 8), buffer.getDouble(offset + 16));
+    }
+    
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Retried on the next interval
+        }
+    }
+    
+    /**
+     * Delete the segment files holding only records below the given
+     * sequence, e.g. those a snapshot already covers; returns the number
+     * deleted. Records not yet synced and the two newest segments are always
+     * kept. Deleted segments are no longer referenced, so their mappings are
+     * released once collected.
+     */
+    public int deleteBefore(long sequence) throws IOException {
+        long keepFrom = Math.min(sequence, syncedSequence.get());
+        long oldestMapped;
+        synchronized (segmentLock) {
+            oldestMapped = previous != null ? previous.index : current.index;
+        }
+        int deleted = 0;
+        for (Path file : segmentFiles(directory)) {
+            long base = baseSequence(file);
+            if (base + options.recordsPerSegment > keepFrom || base / options.recordsPerSegment >= oldestMapped) {
+                break;
+            }
+            if (Files.deleteIfExists(file)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    /** Number of sequence numbers handed out so far */
+    public long getNextSequence() { return nextSequence.get(); }
+    
+    /** Every record below this sequence has been forced to disk */
+    public long getSyncedSequence() { return syncedSequence.get(); }
+    
+    public Path getDirectory() { return directory; }
+    
+    /**
+     * Visit every intact record in sequence order; returns the number visited
+     */
+    public long scan(RecordVisitor visitor) throws IOException {
+        return scan(directory, visitor);
+    }
+    
+    /**
+     * Visit every intact record of the log in a directory, straight from
+     * read-only mappings
+     */
+    public static long scan(Path directory, RecordVisitor visitor) throws IOException {
+        long count = 0;
+        for (Path file : segmentFiles(directory)) {
+            count += scanSegment(file, visitor);
+        }
+        return count;
+    }
+    
+    private static long scanSegment(Path file, RecordVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getLong(0) != MAGIC) {
+                throw new IOException("Not a tick log segment: " + file);
+            }
+            long base = buffer.getLong(8);
+            int records = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+            long count = 0;
+            for (int i = 0; i < records; i++) {
+                int offset = HEADER_BYTES + i * RECORD_BYTES;
+                int id = buffer.getInt(offset);
+                long millis = buffer.getLong(offset + 8);
+                double nav = buffer.getDouble(offset + 16);
+                if (buffer.getInt(offset + 4) == checksum(id, millis, nav)) {
+                    visitor.onRecord(base + i, id, millis, nav);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+    
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(baseSequence(a), baseSequence(b)));
+        return files;
+    }
+    
+    private static long baseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+    
+    /**
+     * 64-bit mix of the fields folded to an int; an all-zero slot never matches
+     */
+    static int checksum(int instrumentId, long epochMillis, double nav) {
+        long h = CHECKSUM_SEED ^ instrumentId;
+        h = (h ^ epochMillis) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ Double.doubleToRawLongBits(nav)) * 0x94D049BB133111EBL;
+        h ^= h >>> 31;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    @Override
+    public void close() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        sync();
+        synchronized (segmentLock) {
+            closed = true;
+        }
+    }
+    
+    private static final class Segment {
+        final long index;
+        final long base;
+        final MappedByteBuffer buffer;
+        
+        Segment(long index, long base, MappedByteBuffer buffer) {
+            this.index = index;
+            this.base = base;
+            this.buffer = buffer;
+        }
+    }
+}
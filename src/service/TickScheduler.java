@@ -0,0 +1,200 @@
+package service;
+
+import model.Stock;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams random NAV ticks into a StockService at a configurable rate
+ * Every period the number of ticks due is worked out from the elapsed time
+ * and applied round-robin over the instrument ids, so the rate holds
+ * regardless of portfolio size. Stocks ticked since the last drain are kept
+ * in a bit set by id; however many ticks land between two UI frames, each
+ * stock is reported once.
+ */
+public class TickScheduler {
+    /** How often due ticks are applied */
+    public static final long PERIOD_MILLIS = 10;
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+    
+    private final StockService stockService;
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private volatile double ticksPerSecond;
+    private ScheduledExecutorService scheduler;
+    
+    private final Object dirtyLock = new Object();
+    private BitSet dirty = new BitSet();
+    
+    // Only touched on the scheduler thread
+    private final SplittableRandom random = new SplittableRandom();
+    private final BitSet touched = new BitSet();
+    private int cursor;
+    private double owed;
+    private long lastRunNanos;
+    private boolean failureReported;
+    
+    public TickScheduler(StockService stockService, double ticksPerSecond) {
+        this.stockService = stockService;
+        setTicksPerSecond(ticksPerSecond);
+    }
+    
+    /**
+     * Change the rate; takes effect from the next period
+     */
+    public void setTicksPerSecond(double ticksPerSecond) {
+        if (!(ticksPerSecond > 0)) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+        }
+        this.ticksPerSecond = ticksPerSecond;
+    }
+    
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+    
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tick-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lastRunNanos = System.nanoTime();
+        owed = 0;
+        failureReported = false;
+        scheduler.scheduleAtFixedRate(this::run, PERIOD_MILLIS, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stop ticking; returns once the period in progress, if any, has finished,
+     * so no tick lands after this and a later start() begins from a quiet state
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            scheduler = null;
+        }
+    }
+    
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+    
+    /**
+     * Total ticks applied since construction
+     */
+    public long getTickCount() {
+        return tickCount.sum();
+    }
+    
+    /**
+     * Stocks ticked since the previous call, in id order, each listed once
+     */
+    public List<Stock> drainUpdated() {
+        BitSet drained;
+        synchronized (dirtyLock) {
+            if (dirty.isEmpty()) {
+                return Collections.emptyList();
+            }
+            drained = dirty;
+            dirty = new BitSet();
+        }
+        
+        List<Stock> updated = new ArrayList<>(drained.cardinality());
+        for (int id = drained.nextSetBit(0); id >= 0; id = drained.nextSetBit(id + 1)) {
+            Stock stock = stockService.getStock(id);
+            if (stock != null) {
+                updated.add(stock);
+            }
+        }
+        return updated;
+    }
+    
+    /**
+     * Periods that threw; a failing period is skipped and ticking carries on
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+    
+    private void run() {
+        // An exception escaping here would silently cancel the periodic task
+        try {
+            applyDue();
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            if (!failureReported) {
+                failureReported = true;
+                System.err.println("Tick scheduler: period failed, continuing: " + e);
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private void applyDue() {
+        long now = System.nanoTime();
+        double rate = ticksPerSecond;
+        // Never owe more than a second's worth, e.g. after a long GC pause
+        owed = Math.min(owed + rate * (now - lastRunNanos) / 1e9, rate);
+        lastRunNanos = now;
+        
+        int due = (int) owed;
+        if (due > 0) {
+            owed -= applyTicks(due);
+        }
+    }
+    
+    private int applyTicks(int due) {
+        int capacity = stockService.getIdCapacity();
+        long timestamp = System.currentTimeMillis();
+        int applied = 0;
+        int misses = 0;
+        
+        while (applied < due && misses < capacity) {
+            if (cursor >= capacity) {
+                cursor = 0;
+            }
+            Stock stock = stockService.getStock(cursor);
+            if (stock != null) {
+                TickEngine.tick(stock, random, timestamp);
+                touched.set(cursor);
+                applied++;
+                misses = 0;
+            } else {
+                misses++;
+            }
+            cursor++;
+        }
+        
+        if (applied > 0) {
+            synchronized (dirtyLock) {
+                dirty.or(touched);
+            }
+            touched.clear();
+            tickCount.add(applied);
+        } else {
+            owed = 0; // Nothing to tick, don't bank ticks for later
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,39 @@
+package service;
+
+/**
+ * Token-bucket rate limiter
+ * Holds up to burst tokens, refilled continuously at permitsPerSecond.
+ * tryAcquire never blocks; it reports how long to wait instead.
+ */
+public class TokenBucket {
+    private final double permitsPerSecond;
+    private final double burst;
+    private double tokens;
+    private long lastRefillNanos;
+    
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+    
+    /**
+     * Take one token if available
+     * @return 0 if a token was taken, otherwise nanoseconds until one is due
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerSecond / 1e9);
+        lastRefillNanos = now;
+        
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) * 1e9 / permitsPerSecond));
+    }
+}
@@ -0,0 +1,91 @@
+package ui;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long the Swing event dispatch thread takes to pick up work
+ * A background thread periodically posts a probe with invokeLater and
+ * records the delay until it runs. Any delay above the budget (one 60 Hz
+ * frame by default) counts as a stall.
+ */
+public class EdtLatencyProbe {
+    public static final long DEFAULT_BUDGET_MILLIS = 16;
+    
+    private final long budgetNanos;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private ScheduledExecutorService scheduler;
+    
+    public EdtLatencyProbe() {
+        this(DEFAULT_BUDGET_MILLIS);
+    }
+    
+    public EdtLatencyProbe(long budgetMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+    
+    /**
+     * Start probing every periodMillis; does nothing if already running
+     */
+    public synchronized void start(long periodMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "edt-latency-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::probe, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+    
+    private void probe() {
+        // While the EDT is blocked one outstanding probe is enough to time the stall
+        if (!pending.compareAndSet(false, true)) {
+            return;
+        }
+        long posted = System.nanoTime();
+        SwingUtilities.invokeLater(() -> {
+            long latency = System.nanoTime() - posted;
+            pending.set(false);
+            samples.increment();
+            if (latency > budgetNanos) {
+                stalls.increment();
+            }
+            maxNanos.accumulateAndGet(latency, Math::max);
+        });
+    }
+    
+    public double getMaxLatencyMillis() { return maxNanos.get() / 1e6; }
+    public long getSampleCount() { return samples.sum(); }
+    
+    /** Number of probes that waited longer than the budget */
+    public long getStallCount() { return stalls.sum(); }
+    
+    public void reset() {
+        maxNanos.set(0);
+        samples.reset();
+        stalls.reset();
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("EDT max %.1f ms, %d stalls > %d ms",
+                             getMaxLatencyMillis(), getStallCount(), TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+    }
+}
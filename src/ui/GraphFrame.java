@@ -1,18 +1,32 @@
 package ui;
 
 import model.Stock;
-import model.NAVRecord;
+import model.NAVRange;
+import model.NAVSeries;
+import model.OHLCSeries;
+import model.Resolution;
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.Line2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
-import java.util.List;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Graph window to display NAV history and trends
  */
 public class GraphFrame extends JFrame {
     private Stock stock;
+    private GraphPanel graphPanel;
+    private JLabel navLabel;
+    private JLabel recommendationLabel;
+    private JLabel recordsLabel;
+    private long shownVersion = -1;
     
     public GraphFrame(Stock stock) {
         this.stock = stock;
@@ -26,72 +40,368 @@ public class GraphFrame extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         
         // Create graph panel
-        GraphPanel graphPanel = new GraphPanel(stock);
+        graphPanel = new GraphPanel(stock);
         
         // Create info panel
         JPanel infoPanel = createInfoPanel();
         
+        add(createControlPanel(), BorderLayout.NORTH);
         add(graphPanel, BorderLayout.CENTER);
         add(infoPanel, BorderLayout.SOUTH);
     }
     
+    private JPanel createControlPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        Resolution[] resolutions = Resolution.values();
+        String[] choices = new String[resolutions.length + 1];
+        choices[0] = "Ticks";
+        for (int i = 0; i < resolutions.length; i++) {
+            choices[i + 1] = resolutions[i].getLabel() + " bars";
+        }
+        
+        JComboBox<String> resolutionBox = new JComboBox<>(choices);
+        resolutionBox.addActionListener(e -> {
+            int selected = resolutionBox.getSelectedIndex();
+            graphPanel.setResolution(selected <= 0 ? null : resolutions[selected - 1]);
+        });
+        
+        JButton resetButton = new JButton("Reset Zoom");
+        resetButton.addActionListener(e -> graphPanel.resetView());
+        
+        panel.add(new JLabel("Resolution:"));
+        panel.add(resolutionBox);
+        panel.add(resetButton);
+        panel.add(new JLabel("Wheel to zoom, drag to pan, double-click to reset"));
+        return panel;
+    }
+    
     private JPanel createInfoPanel() {
         JPanel panel = new JPanel(new GridLayout(2, 3, 10, 5));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         
-        panel.add(new JLabel("Current NAV: ₹" + String.format("%.2f", stock.getCurrentNAV())));
+        navLabel = new JLabel();
+        recommendationLabel = new JLabel();
+        recordsLabel = new JLabel();
+        
+        panel.add(navLabel);
         panel.add(new JLabel("Buy Threshold: ₹" + String.format("%.2f", stock.getBuyThreshold())));
         panel.add(new JLabel("Sell Threshold: ₹" + String.format("%.2f", stock.getSellThreshold())));
-        panel.add(new JLabel("Recommendation: " + stock.getRecommendation()));
-        panel.add(new JLabel("Total Records: " + stock.getNavHistory().size()));
+        panel.add(recommendationLabel);
+        panel.add(recordsLabel);
         panel.add(new JLabel("Stock: " + stock.getSymbol()));
         
+        refresh();
         return panel;
     }
     
+    public Stock getStock() {
+        return stock;
+    }
+    
+    /**
+     * Bring the labels and chart up to date if the stock has ticked since
+     * the last call; cheap enough to call once per UI frame
+     */
+    public void refresh() {
+        long version = stock.getHistoryVersion();
+        if (version == shownVersion) {
+            return;
+        }
+        shownVersion = version;
+        
+        navLabel.setText("Current NAV: ₹" + String.format("%.2f", stock.getCurrentNAV()));
+        recommendationLabel.setText("Recommendation: " + stock.getRecommendation());
+        recordsLabel.setText("Total Records: " + stock.getHistoryStore().size());
+        graphPanel.repaint();
+    }
+    
     /**
      * Custom panel for drawing the NAV graph
+     * The whole chart is rendered into an off-screen image that is reused
+     * until the stock's history version, its thresholds or the panel size
+     * change, so expose events only blit the image. The chart plots raw
+     * ticks, or the closes of the stock's OHLC bars at a chosen resolution
+     * with each bar's high-low range while they are far enough apart.
+     *
+     * The viewport can be zoomed and panned; the Y axis always fits the
+     * visible points, which for raw ticks is an O(log n) range min/max
+     * query rather than a scan. While the viewport reaches the newest point
+     * it follows new ticks; otherwise they leave the rendered chart as it is.
      */
-    private static class GraphPanel extends JPanel {
+    public static class GraphPanel extends JPanel {
         private Stock stock;
         private static final int MARGIN = 50;
+        private static final int MIN_POINT_SPACING = 8; // Pixels between markers
+        private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 16);
+        private static final Font LABEL_FONT = new Font("Arial", Font.PLAIN, 12);
+        private static final Stroke AXIS_STROKE = new BasicStroke(2);
+        private static final Stroke GRID_STROKE = new BasicStroke(1);
+        private static final Stroke LINE_STROKE = new BasicStroke(3);
+        private static final Stroke THRESHOLD_STROKE =
+            new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0);
+        private static final Color POINT_COLOR = new Color(0, 0, 139); // Dark blue color
+        private static final int MIN_VISIBLE = 10; // Deepest zoom, in points
+        private static final double ZOOM_STEP = 1.25;
+        
+        // Off-screen chart and the inputs it was rendered from
+        private BufferedImage frame;
+        private long frameVersion = -1;
+        private double frameBuyThreshold;
+        private double frameSellThreshold;
+        
+        // Series in data coordinates (x = tick index, y = NAV), scaled at draw time
+        private final Path2D.Double seriesPath = new Path2D.Double();
+        private final Ellipse2D.Double marker = new Ellipse2D.Double();
+        private final Line2D.Double wick = new Line2D.Double();
+        
+        // Min/max buckets of bucketSize points aligned to absolute indexes,
+        // covering points [bucketBase * bucketSize, scanned)
+        private int bucketSize;
+        private int bucketBase;
+        private int bucketCount;
+        private int scanned;
+        private int[] bucketMin = new int[0];
+        private int[] bucketMax = new int[0];
+        private double[] bucketLow = new double[0];
+        private double[] bucketHigh = new double[0];
+        private Resolution bucketResolution;
+        private long bucketFirstMillis;
+        
+        // Null plots raw ticks
+        private Resolution resolution;
+        
+        // Viewport: visibleCount points (0 = all) ending at viewEnd, or at the newest point while following
+        private int visibleCount;
+        private int viewEnd;
+        private boolean following = true;
+        
+        // Window drawn by the last render, for mapping mouse gestures
+        private int shownFrom;
+        private int shownTo;
+        private int shownCount;
         
         public GraphPanel(Stock stock) {
             this.stock = stock;
             setBackground(Color.WHITE);
             setBorder(BorderFactory.createTitledBorder("NAV Trend Graph"));
+            
+            MouseAdapter gestures = new MouseAdapter() {
+                private int dragX;
+                
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    double anchor = (e.getX() - MARGIN) / (double) Math.max(1, getWidth() - 2 * MARGIN);
+                    zoom(e.getWheelRotation() < 0 ? 1 / ZOOM_STEP : ZOOM_STEP, anchor);
+                }
+                
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragX = e.getX();
+                }
+                
+                @Override
+                public void mouseDragged(MouseEvent e) {
+                    int visible = shownTo - shownFrom;
+                    int points = (int) Math.round((double) (dragX - e.getX()) * visible
+                                                  / Math.max(1, getWidth() - 2 * MARGIN));
+                    if (points != 0) {
+                        pan(points);
+                        dragX = e.getX();
+                    }
+                }
+                
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) {
+                        resetView();
+                    }
+                }
+            };
+            addMouseListener(gestures);
+            addMouseMotionListener(gestures);
+            addMouseWheelListener(gestures);
+        }
+        
+        /**
+         * Plot the bars at a resolution, or raw ticks for null; resets the viewport
+         */
+        public void setResolution(Resolution resolution) {
+            if (resolution != this.resolution) {
+                this.resolution = resolution;
+                resetView();
+            }
+        }
+        
+        public Resolution getResolution() {
+            return resolution;
+        }
+        
+        /**
+         * Scale the number of visible points by factor (below 1 zooms in),
+         * keeping the point at anchor (0 = left edge, 1 = right edge) in place
+         */
+        public void zoom(double factor, double anchor) {
+            if (shownCount == 0) {
+                return;
+            }
+            int visible = shownTo - shownFrom;
+            int zoomed = (int) Math.round(visible * factor);
+            if (zoomed == visible) {
+                zoomed += factor < 1 ? -1 : 1;
+            }
+            zoomed = Math.max(Math.min(MIN_VISIBLE, shownCount), Math.min(shownCount, zoomed));
+            if (zoomed >= shownCount) {
+                resetView();
+                return;
+            }
+            double at = Math.max(0, Math.min(1, anchor));
+            double pivot = shownFrom + at * (visible - 1);
+            int from = (int) Math.round(pivot - at * (zoomed - 1));
+            from = Math.max(0, Math.min(shownCount - zoomed, from));
+            setView(zoomed, from + zoomed, shownCount);
+        }
+        
+        /**
+         * Shift the viewport by points (positive moves towards newer ticks)
+         */
+        public void pan(int points) {
+            if (shownCount == 0 || visibleCount == 0) {
+                return;
+            }
+            int end = Math.max(shownTo - shownFrom, Math.min(shownCount, shownTo + points));
+            setView(shownTo - shownFrom, end, shownCount);
+        }
+        
+        /**
+         * Show every point again and follow new ticks
+         */
+        public void resetView() {
+            visibleCount = 0;
+            following = true;
+            frameVersion = -1;
+            repaint();
+        }
+        
+        private void setView(int visible, int end, int count) {
+            visibleCount = visible;
+            viewEnd = end;
+            following = end >= count;
+            frameVersion = -1;
+            repaint();
         }
         
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
+            if (ensureFrame()) {
+                g.drawImage(frame, 0, 0, null);
+            }
+        }
+        
+        /**
+         * Re-render the off-screen chart if anything it depends on changed
+         */
+        private boolean ensureFrame() {
+            int width = getWidth();
+            int height = getHeight();
+            if (width <= 0 || height <= 0) {
+                return false;
+            }
+            
+            long version = stock.getHistoryVersion();
+            double buyThreshold = stock.getBuyThreshold();
+            double sellThreshold = stock.getSellThreshold();
+            boolean sizeChanged = frame == null || frame.getWidth() != width || frame.getHeight() != height;
+            if (!sizeChanged && buyThreshold == frameBuyThreshold && sellThreshold == frameSellThreshold
+                    && (version == frameVersion || !following && frameVersion != -1)) {
+                // New ticks land outside a viewport that is not following them
+                frameVersion = version;
+                return true;
+            }
+            
+            if (sizeChanged) {
+                GraphicsConfiguration config = getGraphicsConfiguration();
+                frame = config != null ? config.createCompatibleImage(width, height)
+                                       : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                g2d.setColor(getBackground());
+                g2d.fillRect(0, 0, width, height);
+                g2d.setFont(getFont());
+                renderChart(g2d, width, height);
+            } finally {
+                g2d.dispose();
+            }
+            
+            frameVersion = version;
+            frameBuyThreshold = buyThreshold;
+            frameSellThreshold = sellThreshold;
+            return true;
+        }
+        
+        private void renderChart(Graphics2D g2d, int width, int height) {
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             
-            List<NAVRecord> history = stock.getNavHistory();
+            // Bars come straight from the aggregates and never reload spilled ticks
+            NAVSeries history = null;
+            OHLCSeries bars = null;
+            IntToDoubleFunction values;
+            int count;
+            long firstMillis;
+            if (resolution == null) {
+                history = stock.getHistory();
+                values = history::getNav;
+                count = history.size();
+                firstMillis = count > 0 ? history.getTimestamp(0) : 0;
+            } else {
+                bars = stock.getBars(resolution);
+                values = bars::getClose;
+                count = bars.size();
+                firstMillis = count > 0 ? bars.getStart(0) : 0;
+            }
             
-            if (history.isEmpty()) {
+            if (count == 0) {
                 // Draw "No Data" message
                 g2d.setColor(Color.GRAY);
-                g2d.setFont(new Font("Arial", Font.BOLD, 16));
+                g2d.setFont(TITLE_FONT);
                 String message = "No NAV data available. Click 'Refresh NAV' to generate data.";
                 FontMetrics fm = g2d.getFontMetrics();
-                int x = (getWidth() - fm.stringWidth(message)) / 2;
-                int y = getHeight() / 2;
+                int x = (width - fm.stringWidth(message)) / 2;
+                int y = height / 2;
                 g2d.drawString(message, x, y);
                 return;
             }
             
-            int width = getWidth();
-            int height = getHeight();
-            
             // Calculate graph dimensions
             int graphWidth = width - 2 * MARGIN;
             int graphHeight = height - 2 * MARGIN;
             
-            // Find min and max NAV values
-            double minNAV = history.stream().mapToDouble(NAVRecord::getNav).min().orElse(0);
-            double maxNAV = history.stream().mapToDouble(NAVRecord::getNav).max().orElse(100);
+            // Visible window [from, to) of the series
+            int to = following ? count : Math.min(viewEnd, count);
+            int visible = visibleCount == 0 ? count : Math.min(visibleCount, count);
+            int from = Math.max(0, to - visible);
+            to = Math.min(count, from + visible);
+            shownFrom = from;
+            shownTo = to;
+            shownCount = count;
+            
+            // Raw ticks answer from the range min/max index; the visible bars are scanned
+            double minNAV;
+            double maxNAV;
+            if (history != null) {
+                NAVRange extent = history.minMax(from, to);
+                minNAV = extent.getMin();
+                maxNAV = extent.getMax();
+            } else {
+                minNAV = Double.POSITIVE_INFINITY;
+                maxNAV = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    minNAV = Math.min(minNAV, bars.getLow(i));
+                    maxNAV = Math.max(maxNAV, bars.getHigh(i));
+                }
+            }
             
             // Add some padding to min/max
             double range = maxNAV - minNAV;
@@ -101,16 +411,16 @@ public class GraphFrame extends JFrame {
             
             // Draw axes
             g2d.setColor(Color.BLACK);
-            g2d.setStroke(new BasicStroke(2));
+            g2d.setStroke(AXIS_STROKE);
             
             // Y-axis
-            g2d.draw(new Line2D.Double(MARGIN, MARGIN, MARGIN, height - MARGIN));
+            g2d.drawLine(MARGIN, MARGIN, MARGIN, height - MARGIN);
             // X-axis
-            g2d.draw(new Line2D.Double(MARGIN, height - MARGIN, width - MARGIN, height - MARGIN));
+            g2d.drawLine(MARGIN, height - MARGIN, width - MARGIN, height - MARGIN);
             
             // Draw grid lines and labels
             g2d.setColor(Color.LIGHT_GRAY);
-            g2d.setStroke(new BasicStroke(1));
+            g2d.setStroke(GRID_STROKE);
             
             // Y-axis grid lines and labels
             for (int i = 0; i <= 5; i++) {
@@ -127,7 +437,7 @@ public class GraphFrame extends JFrame {
             if (stock.getBuyThreshold() > 0) {
                 int buyY = height - MARGIN - (int) ((stock.getBuyThreshold() - minNAV) / (maxNAV - minNAV) * graphHeight);
                 g2d.setColor(Color.GREEN);
-                g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0));
+                g2d.setStroke(THRESHOLD_STROKE);
                 g2d.drawLine(MARGIN, buyY, width - MARGIN, buyY);
                 g2d.drawString("Buy: ₹" + String.format("%.2f", stock.getBuyThreshold()), width - MARGIN - 100, buyY - 5);
             }
@@ -135,48 +445,61 @@ public class GraphFrame extends JFrame {
             if (stock.getSellThreshold() > 0) {
                 int sellY = height - MARGIN - (int) ((stock.getSellThreshold() - minNAV) / (maxNAV - minNAV) * graphHeight);
                 g2d.setColor(Color.RED);
-                g2d.setStroke(new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL, 0, new float[]{5}, 0));
+                g2d.setStroke(THRESHOLD_STROKE);
                 g2d.drawLine(MARGIN, sellY, width - MARGIN, sellY);
                 g2d.drawString("Sell: ₹" + String.format("%.2f", stock.getSellThreshold()), width - MARGIN - 100, sellY - 5);
             }
             
-            // Draw NAV line graph
-            g2d.setColor(Color.BLUE);
-            g2d.setStroke(new BasicStroke(3));
+            // Map data coordinates onto the plot area
+            double xScale = (double) graphWidth / Math.max(1, to - from - 1);
+            double yScale = graphHeight / (maxNAV - minNAV);
+            AffineTransform toScreen = new AffineTransform(xScale, 0, 0, -yScale, MARGIN - from * xScale,
+                                                           height - MARGIN + minNAV * yScale);
             
-            for (int i = 1; i < history.size(); i++) {
-                double nav1 = history.get(i - 1).getNav();
-                double nav2 = history.get(i).getNav();
-                
-                int x1 = MARGIN + (i - 1) * graphWidth / Math.max(1, history.size() - 1);
-                int y1 = height - MARGIN - (int) ((nav1 - minNAV) / (maxNAV - minNAV) * graphHeight);
-                int x2 = MARGIN + i * graphWidth / Math.max(1, history.size() - 1);
-                int y2 = height - MARGIN - (int) ((nav2 - minNAV) / (maxNAV - minNAV) * graphHeight);
-                
-                g2d.draw(new Line2D.Double(x1, y1, x2, y2));
-            }
+            // Draw NAV line graph
+            updateSeriesPath(values, from, to, count, firstMillis, graphWidth);
+            Graphics2D plot = (Graphics2D) g2d.create();
+            plot.clipRect(MARGIN, MARGIN, graphWidth + 1, graphHeight + 1);
+            plot.setColor(Color.BLUE);
+            plot.setStroke(LINE_STROKE);
+            plot.draw(toScreen.createTransformedShape(seriesPath));
+            plot.dispose();
             
-            // Draw data points
-            g2d.setColor(new Color(0, 0, 139)); // Dark blue color
-            for (int i = 0; i < history.size(); i++) {
-                double nav = history.get(i).getNav();
-                int x = MARGIN + i * graphWidth / Math.max(1, history.size() - 1);
-                int y = height - MARGIN - (int) ((nav - minNAV) / (maxNAV - minNAV) * graphHeight);
-                
-                g2d.fill(new Ellipse2D.Double(x - 3, y - 3, 6, 6));
+            // Draw data points only while they are far enough apart to tell apart
+            if (to - from <= graphWidth / MIN_POINT_SPACING) {
+                g2d.setColor(POINT_COLOR);
+                for (int i = from; i < to; i++) {
+                    double x = MARGIN + (i - from) * xScale;
+                    double y = height - MARGIN - (values.applyAsDouble(i) - minNAV) * yScale;
+                    
+                    if (bars != null) {
+                        g2d.setStroke(GRID_STROKE);
+                        wick.setLine(x, height - MARGIN - (bars.getHigh(i) - minNAV) * yScale,
+                                     x, height - MARGIN - (bars.getLow(i) - minNAV) * yScale);
+                        g2d.draw(wick);
+                    }
+                    marker.setFrame(x - 3, y - 3, 6, 6);
+                    g2d.fill(marker);
+                }
             }
             
             // Draw title
             g2d.setColor(Color.BLACK);
-            g2d.setFont(new Font("Arial", Font.BOLD, 16));
-            String title = stock.getName() + " (" + stock.getSymbol() + ") - NAV History";
+            g2d.setFont(TITLE_FONT);
+            String title = stock.getName() + " (" + stock.getSymbol() + ") - "
+                + (resolution == null ? "NAV History" : resolution.getLabel() + " Bars");
             FontMetrics fm = g2d.getFontMetrics();
             int titleX = (width - fm.stringWidth(title)) / 2;
             g2d.drawString(title, titleX, 25);
             
             // Draw axis labels
-            g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-            g2d.drawString("Time →", width / 2 - 20, height - 10);
+            g2d.setFont(LABEL_FONT);
+            String timeLabel = "Time →";
+            if (to - from < count) {
+                timeLabel += String.format("  (%s %,d-%,d of %,d)", resolution == null ? "ticks" : "bars",
+                                           from + 1, to, count);
+            }
+            g2d.drawString(timeLabel, width / 2 - 20, height - 10);
             
             // Rotate and draw Y-axis label
             Graphics2D g2dRotated = (Graphics2D) g2d.create();
@@ -184,5 +507,124 @@ public class GraphFrame extends JFrame {
             g2dRotated.drawString("NAV (₹) →", -height / 2 - 20, 20);
             g2dRotated.dispose();
         }
+        
+        /**
+         * Rebuild the series path for points [from, to) from min/max buckets
+         * of a power-of-two number of points, about one per pixel column.
+         * Buckets are aligned to absolute indexes and cached, so a new tick
+         * only updates the last bucket and a sliding window only adds and
+         * drops buckets at its ends; the cache restarts when the bucket size,
+         * the resolution or the oldest point changes. The newest bucket of
+         * bars is rescanned, as its last bar keeps changing.
+         */
+        private void updateSeriesPath(IntToDoubleFunction values, int from, int to, int count,
+                                      long firstMillis, int graphWidth) {
+            int size = Integer.highestOneBit(Math.max(1, (to - from) / Math.max(1, graphWidth)));
+            int first = from / size;
+            if (size != bucketSize || resolution != bucketResolution || firstMillis != bucketFirstMillis
+                    || scanned > count || first < bucketBase || first >= bucketBase + bucketCount) {
+                bucketSize = size;
+                bucketResolution = resolution;
+                bucketFirstMillis = firstMillis;
+                bucketBase = first;
+                bucketCount = 0;
+                scanned = first * size;
+            } else if (resolution != null) {
+                bucketCount--;
+                scanned = (bucketBase + bucketCount) * size;
+            }
+            
+            // Scan new points into the buckets
+            if (to > scanned) {
+                reserveBuckets(first, (to - 1) / size + 1 - first);
+                for (int i = scanned; i < to; i++) {
+                    double value = values.applyAsDouble(i);
+                    int b = i / size - bucketBase;
+                    if (b == bucketCount) {
+                        bucketMin[b] = i;
+                        bucketMax[b] = i;
+                        bucketLow[b] = value;
+                        bucketHigh[b] = value;
+                        bucketCount++;
+                    } else if (value < bucketLow[b]) {
+                        bucketMin[b] = i;
+                        bucketLow[b] = value;
+                    } else if (value > bucketHigh[b]) {
+                        bucketMax[b] = i;
+                        bucketHigh[b] = value;
+                    }
+                }
+                scanned = to;
+            }
+            
+            // Each bucket contributes its first, lowest, highest and last points in index order;
+            // buckets cut by the window edges are scanned over the visible part
+            seriesPath.reset();
+            int previous = -1;
+            for (int b = first, last = (to - 1) / size; b <= last; b++) {
+                int lo = Math.max(from, b * size);
+                int hi = Math.min(to, (b + 1) * size);
+                int min;
+                int max;
+                if (lo == b * size && hi == Math.min(scanned, (b + 1) * size)) {
+                    min = bucketMin[b - bucketBase];
+                    max = bucketMax[b - bucketBase];
+                } else {
+                    min = lo;
+                    max = lo;
+                    for (int i = lo + 1; i < hi; i++) {
+                        double value = values.applyAsDouble(i);
+                        if (value < values.applyAsDouble(min)) {
+                            min = i;
+                        } else if (value > values.applyAsDouble(max)) {
+                            max = i;
+                        }
+                    }
+                }
+                previous = addPoint(values, lo, previous);
+                previous = addPoint(values, Math.min(min, max), previous);
+                previous = addPoint(values, Math.max(min, max), previous);
+                previous = addPoint(values, hi - 1, previous);
+            }
+        }
+        
+        /**
+         * Make room for buckets [first, first + buckets), dropping the cached
+         * ones before first
+         */
+        private void reserveBuckets(int first, int buckets) {
+            int drop = first - bucketBase;
+            if (buckets <= bucketMin.length - drop) {
+                return;
+            }
+            
+            int capacity = Math.max(buckets, 2 * bucketMin.length);
+            int[] min = new int[capacity];
+            int[] max = new int[capacity];
+            double[] low = new double[capacity];
+            double[] high = new double[capacity];
+            int keep = bucketCount - drop;
+            System.arraycopy(bucketMin, drop, min, 0, keep);
+            System.arraycopy(bucketMax, drop, max, 0, keep);
+            System.arraycopy(bucketLow, drop, low, 0, keep);
+            System.arraycopy(bucketHigh, drop, high, 0, keep);
+            bucketMin = min;
+            bucketMax = max;
+            bucketLow = low;
+            bucketHigh = high;
+            bucketBase = first;
+            bucketCount = keep;
+        }
+        
+        private int addPoint(IntToDoubleFunction values, int i, int previous) {
+            if (i != previous) {
+                if (previous < 0) {
+                    seriesPath.moveTo(i, values.applyAsDouble(i));
+                } else {
+                    seriesPath.lineTo(i, values.applyAsDouble(i));
+                }
+            }
+            return i;
+        }
     }
 }
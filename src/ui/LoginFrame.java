@@ -5,6 +5,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Login window for the application
@@ -12,13 +13,17 @@ import java.awt.event.ActionListener;
 public class LoginFrame extends JFrame {
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private JButton loginButton;
+    private JButton registerButton;
     private AuthenticationService authService;
     
     public LoginFrame() {
-        authService = new AuthenticationService();
         initializeComponents();
         setupLayout();
         setupEventHandlers();
+        // Hashing the default admin password takes a PBKDF2 round; keep it off the EDT
+        setBusy(true);
+        new ServiceWorker().execute();
     }
     
     private void initializeComponents() {
@@ -65,8 +70,8 @@ public class LoginFrame extends JFrame {
         
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout());
-        JButton loginButton = new JButton("Login");
-        JButton registerButton = new JButton("Register");
+        loginButton = new JButton("Login");
+        registerButton = new JButton("Register");
         
         loginButton.setPreferredSize(new Dimension(100, 35));
         registerButton.setPreferredSize(new Dimension(100, 35));
@@ -109,20 +114,8 @@ public class LoginFrame extends JFrame {
             return;
         }
         
-        if (authService.authenticate(username, password)) {
-            JOptionPane.showMessageDialog(this, "Login successful!", 
-                                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            
-            // Open main application window
-            SwingUtilities.invokeLater(() -> {
-                new MainFrame(username).setVisible(true);
-                dispose();
-            });
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid username or password.", 
-                                        "Login Failed", JOptionPane.ERROR_MESSAGE);
-            passwordField.setText("");
-        }
+        setBusy(true);
+        new LoginWorker(username, password).execute();
     }
     
     private void handleRegister() {
@@ -135,13 +128,123 @@ public class LoginFrame extends JFrame {
             return;
         }
         
-        if (authService.register(username, password)) {
-            JOptionPane.showMessageDialog(this, "Registration successful! You can now login.", 
-                                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            passwordField.setText("");
-        } else {
-            JOptionPane.showMessageDialog(this, "Username already exists.", 
-                                        "Registration Failed", JOptionPane.ERROR_MESSAGE);
+        setBusy(true);
+        new RegisterWorker(username, password).execute();
+    }
+    
+    /**
+     * Disable the buttons (and the Enter key with them) while a password is hashed
+     */
+    private void setBusy(boolean busy) {
+        loginButton.setEnabled(!busy);
+        registerButton.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+    }
+    
+    private void showFailure(String action, ExecutionException e) {
+        JOptionPane.showMessageDialog(this, action + " failed: " + e.getCause().getMessage(), 
+                                    "Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    /**
+     * Builds the authentication service, which registers the default admin
+     */
+    private class ServiceWorker extends SwingWorker<AuthenticationService, Void> {
+        @Override
+        protected AuthenticationService doInBackground() {
+            return new AuthenticationService();
+        }
+        
+        @Override
+        protected void done() {
+            try {
+                authService = get();
+                setBusy(false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                showFailure("Startup", e);
+            }
+        }
+    }
+    
+    /**
+     * Verifies the password hash without holding up the EDT
+     */
+    private class LoginWorker extends SwingWorker<Boolean, Void> {
+        private final String username;
+        private final String password;
+        
+        LoginWorker(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+        
+        @Override
+        protected Boolean doInBackground() {
+            return authService.authenticate(username, password);
+        }
+        
+        @Override
+        protected void done() {
+            setBusy(false);
+            try {
+                if (get()) {
+                    JOptionPane.showMessageDialog(LoginFrame.this, "Login successful!", 
+                                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                    
+                    // Open main application window
+                    SwingUtilities.invokeLater(() -> {
+                        new MainFrame(username).setVisible(true);
+                        dispose();
+                    });
+                } else {
+                    JOptionPane.showMessageDialog(LoginFrame.this, "Invalid username or password.", 
+                                                "Login Failed", JOptionPane.ERROR_MESSAGE);
+                    passwordField.setText("");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                showFailure("Login", e);
+            }
+        }
+    }
+    
+    /**
+     * Hashes the new password without holding up the EDT
+     */
+    private class RegisterWorker extends SwingWorker<Boolean, Void> {
+        private final String username;
+        private final String password;
+        
+        RegisterWorker(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+        
+        @Override
+        protected Boolean doInBackground() {
+            return authService.register(username, password);
+        }
+        
+        @Override
+        protected void done() {
+            setBusy(false);
+            try {
+                if (get()) {
+                    JOptionPane.showMessageDialog(LoginFrame.this, "Registration successful! You can now login.", 
+                                                "Success", JOptionPane.INFORMATION_MESSAGE);
+                    passwordField.setText("");
+                } else {
+                    JOptionPane.showMessageDialog(LoginFrame.this, "Username already exists.", 
+                                                "Registration Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                showFailure("Registration", e);
+            }
         }
     }
 }
@@ -1,14 +1,28 @@
 package ui;
 
 import model.Stock;
+import service.AlertEngine;
 import service.StockService;
 import service.GeminiAIService;
+import service.HistoryTierManager;
+import service.PortfolioStore;
+import service.ThresholdAlert;
+import service.TickLog;
+import service.TickScheduler;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main application window for stock management
@@ -20,16 +34,61 @@ public class MainFrame extends JFrame {
     
     // UI Components
     private JTable stockTable;
-    private DefaultTableModel tableModel;
+    private StockTableModel tableModel;
     private JTextField stockNameField;
     private JTextField stockSymbolField;
     private JTextField buyThresholdField;
     private JTextField sellThresholdField;
+    private JButton addButton;
+    private JButton removeButton;
+    private JButton refreshButton;
+    private JButton predictButton;
+    
+    // Background work
+    private static final int PROGRESS_BATCH = 256;
+    private SwingWorker<?, ?> currentTask;
+    private boolean currentTaskCancellable;
+    private boolean closing;
+    private JLabel statusLabel;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private JLabel latencyLabel;
+    private final EdtLatencyProbe latencyProbe = new EdtLatencyProbe();
+    private Timer statusTimer;
+    
+    // Live streaming
+    private static final int MAX_FPS = 30;
+    private static final int DEFAULT_TICK_RATE = 1000;
+    private TickScheduler tickScheduler;
+    private Timer frameTimer;
+    private JToggleButton streamButton;
+    private JSpinner tickRateSpinner;
+    private JLabel throughputLabel;
+    private final List<GraphFrame> openGraphs = new ArrayList<>();
+    private long lastTickCount;
+    private long lastThroughputNanos = System.nanoTime();
+    
+    // Persistence
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 60_000;
+    private final PortfolioStore portfolioStore;
+    private static final int TICK_LOG_SEGMENT_RECORDS = 1 << 20; // 24 MB per segment
+    private volatile TickLog tickLog;
+    private static final long DEFAULT_HISTORY_HEAP_MB = 256;
+    private volatile HistoryTierManager historyTiers;
+    private JLabel historyLabel;
+    
+    // Threshold crossings, pushed by the alert engine and shown by the status timer
+    private AlertEngine.Subscription alertSubscription;
+    private volatile ThresholdAlert lastAlert;
+    private volatile long alertCount;
+    private JLabel alertLabel;
     
     public MainFrame(String username) {
         this.currentUser = username;
         this.stockService = new StockService();
         this.aiService = new GeminiAIService();
+        this.tickScheduler = new TickScheduler(stockService, DEFAULT_TICK_RATE);
+        this.portfolioStore = new PortfolioStore(dataDirectory(username));
         
         initializeComponents();
         setupLayout();
@@ -38,19 +97,12 @@ public class MainFrame extends JFrame {
     
     private void initializeComponents() {
         setTitle("Stock Portfolio Manager - Welcome " + currentUser);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setSize(1200, 800);
         setLocationRelativeTo(null);
         
         // Initialize table
-        String[] columnNames = {"Stock Name", "Symbol", "Current NAV", "Buy Threshold", 
-                               "Sell Threshold", "Recommendation", "AI Prediction"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        tableModel = new StockTableModel(stockService);
         stockTable = new JTable(tableModel);
         stockTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         stockTable.setRowHeight(25);
@@ -60,6 +112,49 @@ public class MainFrame extends JFrame {
         stockSymbolField = new JTextField(10);
         buyThresholdField = new JTextField(10);
         sellThresholdField = new JTextField(10);
+        
+        // Initialize status bar
+        statusLabel = new JLabel("Ready");
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setVisible(false);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> cancelCurrentTask());
+        latencyLabel = new JLabel();
+        historyLabel = new JLabel();
+        alertLabel = new JLabel("Alerts: 0");
+        alertSubscription = stockService.getAlertEngine().subscribe(alert -> {
+            lastAlert = alert;
+            alertCount++; // Only the delivery thread writes it
+        });
+        
+        latencyProbe.start(50);
+        statusTimer = new Timer(1000, e -> updateStatus());
+        statusTimer.start();
+        
+        // Initialize streaming controls
+        streamButton = new JToggleButton("Start Stream");
+        streamButton.addActionListener(e -> handleToggleStream());
+        tickRateSpinner = new JSpinner(new SpinnerNumberModel(DEFAULT_TICK_RATE, 1, 1_000_000, 100));
+        tickRateSpinner.addChangeListener(e -> 
+            tickScheduler.setTicksPerSecond(((Number) tickRateSpinner.getValue()).doubleValue()));
+        throughputLabel = new JLabel("Ticks/s: 0");
+        throughputLabel.setForeground(Color.WHITE);
+        frameTimer = new Timer(1000 / MAX_FPS, e -> repaintUpdated());
+        
+        // Exit only once the final snapshot is on disk
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                closeAndThen(() -> System.exit(0));
+            }
+        });
+    }
+    
+    // One store per user under ./data, or under -Dstockmanager.data
+    private static Path dataDirectory(String username) {
+        String folder = username.replaceAll("[^A-Za-z0-9_-]", "_");
+        return Paths.get(System.getProperty("stockmanager.data", "data"), folder);
     }
     
     private void setupLayout() {
@@ -77,8 +172,13 @@ public class MainFrame extends JFrame {
         JButton logoutButton = new JButton("Logout");
         logoutButton.addActionListener(e -> handleLogout());
         
+        JPanel headerRight = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 0));
+        headerRight.setOpaque(false);
+        headerRight.add(throughputLabel);
+        headerRight.add(logoutButton);
+        
         headerPanel.add(titleLabel, BorderLayout.WEST);
-        headerPanel.add(logoutButton, BorderLayout.EAST);
+        headerPanel.add(headerRight, BorderLayout.EAST);
         
         // Input panel
         JPanel inputPanel = createInputPanel();
@@ -98,6 +198,26 @@ public class MainFrame extends JFrame {
         
         add(headerPanel, BorderLayout.NORTH);
         add(contentPanel, BorderLayout.CENTER);
+        add(createStatusPanel(), BorderLayout.SOUTH);
+    }
+    
+    private JPanel createStatusPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 0));
+        panel.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        
+        JPanel taskPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        taskPanel.add(statusLabel);
+        taskPanel.add(progressBar);
+        taskPanel.add(cancelButton);
+        
+        JPanel metricsPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 0));
+        metricsPanel.add(alertLabel);
+        metricsPanel.add(historyLabel);
+        metricsPanel.add(latencyLabel);
+        
+        panel.add(taskPanel, BorderLayout.WEST);
+        panel.add(metricsPanel, BorderLayout.EAST);
+        return panel;
     }
     
     private JPanel createInputPanel() {
@@ -139,11 +259,11 @@ public class MainFrame extends JFrame {
     private JPanel createButtonPanel() {
         JPanel panel = new JPanel(new FlowLayout());
         
-        JButton addButton = new JButton("Add Stock");
-        JButton removeButton = new JButton("Remove Selected");
+        addButton = new JButton("Add Stock");
+        removeButton = new JButton("Remove Selected");
         JButton viewGraphButton = new JButton("View NAV Graph");
-        JButton refreshButton = new JButton("Refresh NAV");
-        JButton predictButton = new JButton("AI Prediction");
+        refreshButton = new JButton("Refresh NAV");
+        predictButton = new JButton("AI Prediction");
         
         addButton.addActionListener(e -> handleAddStock());
         removeButton.addActionListener(e -> handleRemoveStock());
@@ -156,35 +276,120 @@ public class MainFrame extends JFrame {
         panel.add(viewGraphButton);
         panel.add(refreshButton);
         panel.add(predictButton);
+        panel.add(streamButton);
+        panel.add(new JLabel("Ticks/s:"));
+        panel.add(tickRateSpinner);
         
         return panel;
     }
     
     private void loadStockData() {
-        // Add some sample stocks
-        stockService.addStock("Tata Motors", "TATAMOTORS");
-        stockService.addStock("Reliance Industries", "RELIANCE");
-        stockService.addStock("Infosys", "INFY");
+        runInBackground("Loading stocks...", new LoadWorker());
+    }
+    
+    private void runInBackground(String description, SwingWorker<?, ?> worker) {
+        runInBackground(description, worker, true);
+    }
+    
+    /**
+     * Run a worker off the EDT, binding its progress to the status bar
+     * Only one task runs at a time; the actions that modify stocks stay
+     * disabled until it finishes. Tasks that are not cancellable, such as
+     * a logged add that is already half done, keep Cancel disabled.
+     */
+    private void runInBackground(String description, SwingWorker<?, ?> worker, boolean cancellable) {
+        currentTask = worker;
+        currentTaskCancellable = cancellable;
+        setActionsEnabled(false);
+        statusLabel.setText(description);
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setEnabled(cancellable);
+        
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            } else if ("state".equals(event.getPropertyName())
+                       && event.getNewValue() == SwingWorker.StateValue.DONE && currentTask == worker
+                       && !closing) {
+                currentTask = null;
+                setActionsEnabled(true);
+                statusLabel.setText(worker.isCancelled() ? "Cancelled" : "Ready");
+                progressBar.setVisible(false);
+                cancelButton.setEnabled(false);
+            }
+        });
+        worker.execute();
+    }
+    
+    private void cancelCurrentTask() {
+        if (currentTask != null && currentTaskCancellable) {
+            currentTask.cancel(true);
+        }
+    }
+    
+    private void setActionsEnabled(boolean enabled) {
+        addButton.setEnabled(enabled);
+        removeButton.setEnabled(enabled);
+        predictButton.setEnabled(enabled);
+        // Refresh and the stream would both write NAVs, so never run them together
+        refreshButton.setEnabled(enabled && !tickScheduler.isRunning());
+        streamButton.setEnabled(enabled || tickScheduler.isRunning());
+    }
+    
+    private void updateStatus() {
+        latencyLabel.setText(latencyProbe.toString());
+        ThresholdAlert alert = lastAlert;
+        if (alert != null) {
+            alertLabel.setText(String.format("Alerts: %,d | Last: %s", alertCount, alert));
+        }
+        HistoryTierManager tiers = historyTiers;
+        if (tiers != null) {
+            historyLabel.setText(tiers.toString());
+        }
         
-        updateTable();
+        long now = System.nanoTime();
+        long ticks = tickScheduler.getTickCount();
+        double rate = (ticks - lastTickCount) * 1e9 / (now - lastThroughputNanos);
+        throughputLabel.setText(String.format("Ticks/s: %,.0f", rate));
+        lastTickCount = ticks;
+        lastThroughputNanos = now;
     }
     
-    private void updateTable() {
-        tableModel.setRowCount(0);
-        List<Stock> stocks = stockService.getAllStocks();
-        
-        for (Stock stock : stocks) {
-            Object[] row = {
-                stock.getName(),
-                stock.getSymbol(),
-                String.format("₹%.2f", stock.getCurrentNAV()),
-                stock.getBuyThreshold() > 0 ? String.format("₹%.2f", stock.getBuyThreshold()) : "Not Set",
-                stock.getSellThreshold() > 0 ? String.format("₹%.2f", stock.getSellThreshold()) : "Not Set",
-                stock.getRecommendation(),
-                "Click Predict"
-            };
-            tableModel.addRow(row);
+    private void handleToggleStream() {
+        if (streamButton.isSelected()) {
+            tickScheduler.start();
+            frameTimer.start();
+            streamButton.setText("Stop Stream");
+        } else {
+            tickScheduler.stop();
+            frameTimer.stop();
+            repaintUpdated(); // Show the last ticks
+            streamButton.setText("Start Stream");
         }
+        setActionsEnabled(currentTask == null);
+    }
+    
+    /**
+     * Repaint what changed since the previous frame; any number of ticks in
+     * between collapse into one row update per stock
+     */
+    private void repaintUpdated() {
+        List<Stock> updated = tickScheduler.drainUpdated();
+        if (updated.isEmpty()) {
+            return;
+        }
+        tableModel.stocksUpdated(updated);
+        for (GraphFrame graph : openGraphs) {
+            graph.refresh();
+        }
+    }
+    
+    /**
+     * Refresh the table after stocks were added or removed
+     */
+    private void updateTable() {
+        tableModel.reload();
     }
     
     private void handleAddStock() {
@@ -197,37 +402,23 @@ public class MainFrame extends JFrame {
             return;
         }
         
+        String buyText = buyThresholdField.getText().trim();
+        String sellText = sellThresholdField.getText().trim();
+        double buyThreshold;
+        double sellThreshold;
         try {
-            Stock stock = stockService.addStock(name, symbol);
-            
-            // Set thresholds if provided
-            if (!buyThresholdField.getText().trim().isEmpty()) {
-                double buyThreshold = Double.parseDouble(buyThresholdField.getText().trim());
-                stock.setBuyThreshold(buyThreshold);
-            }
-            
-            if (!sellThresholdField.getText().trim().isEmpty()) {
-                double sellThreshold = Double.parseDouble(sellThresholdField.getText().trim());
-                stock.setSellThreshold(sellThreshold);
-            }
-            
-            // Clear fields
-            stockNameField.setText("");
-            stockSymbolField.setText("");
-            buyThresholdField.setText("");
-            sellThresholdField.setText("");
-            
-            updateTable();
-            JOptionPane.showMessageDialog(this, "Stock added successfully!", 
-                                        "Success", JOptionPane.INFORMATION_MESSAGE);
-            
+            // Unset thresholds stay at 0, as on a stock added without any
+            buyThreshold = buyText.isEmpty() ? 0 : Double.parseDouble(buyText);
+            sellThreshold = sellText.isEmpty() ? 0 : Double.parseDouble(sellText);
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Please enter valid numbers for thresholds.", 
                                         "Input Error", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error adding stock: " + e.getMessage(), 
-                                        "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        boolean hasThresholds = !buyText.isEmpty() || !sellText.isEmpty();
+        
+        runInBackground("Adding " + symbol + "...", 
+                        new AddStockWorker(name, symbol, hasThresholds, buyThreshold, sellThreshold), false);
     }
     
     private void handleRemoveStock() {
@@ -238,17 +429,18 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        String stockName = (String) tableModel.getValueAt(selectedRow, 0);
+        Stock selected = tableModel.getStockAt(selectedRow);
+        if (selected == null) {
+            return;
+        }
+        String stockName = selected.getName();
         int confirm = JOptionPane.showConfirmDialog(this, 
                                                   "Are you sure you want to remove " + stockName + "?", 
                                                   "Confirm Removal", 
                                                   JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            stockService.removeStock(stockName);
-            updateTable();
-            JOptionPane.showMessageDialog(this, "Stock removed successfully!", 
-                                        "Success", JOptionPane.INFORMATION_MESSAGE);
+            runInBackground("Removing " + stockName + "...", new RemoveStockWorker(stockName), false);
         }
     }
     
@@ -260,25 +452,23 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        String stockName = (String) tableModel.getValueAt(selectedRow, 0);
-        Stock stock = stockService.getStock(stockName);
+        Stock stock = tableModel.getStockAt(selectedRow);
         
         if (stock != null) {
-            new GraphFrame(stock).setVisible(true);
+            GraphFrame graph = new GraphFrame(stock);
+            openGraphs.add(graph);
+            graph.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    openGraphs.remove(graph);
+                }
+            });
+            graph.setVisible(true);
         }
     }
     
     private void handleRefreshNAV() {
-        // Simulate NAV refresh with random values
-        List<Stock> stocks = stockService.getAllStocks();
-        for (Stock stock : stocks) {
-            double newNAV = stockService.generateRandomNAV();
-            stock.setCurrentNAV(newNAV);
-        }
-        
-        updateTable();
-        JOptionPane.showMessageDialog(this, "NAV values refreshed!", 
-                                    "Success", JOptionPane.INFORMATION_MESSAGE);
+        runInBackground("Refreshing NAV values...", new RefreshWorker(stockService.getAllStocks()));
     }
     
     private void handleAIPrediction() {
@@ -289,15 +479,10 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        String stockName = (String) tableModel.getValueAt(selectedRow, 0);
-        Stock stock = stockService.getStock(stockName);
+        Stock stock = tableModel.getStockAt(selectedRow);
         
         if (stock != null) {
-            String prediction = aiService.predictNAV(stock);
-            JOptionPane.showMessageDialog(this, 
-                                        "AI Prediction for " + stockName + ":\n\n" + prediction, 
-                                        "AI Prediction", 
-                                        JOptionPane.INFORMATION_MESSAGE);
+            runInBackground("Predicting " + stock.getSymbol() + "...", new PredictionWorker(stock));
         }
     }
     
@@ -308,8 +493,305 @@ public class MainFrame extends JFrame {
                                                   JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
+            closeAndThen(() -> new LoginFrame().setVisible(true));
+        }
+    }
+    
+    /**
+     * Stop streaming and background work, write the final snapshot on a
+     * worker, then dispose the frame and run next on the EDT. Later calls
+     * while closing, e.g. the window closing during a logout, are ignored.
+     */
+    private void closeAndThen(Runnable next) {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        // An add or remove in flight is not cancellable; it finishes before the store closes
+        SwingWorker<?, ?> unfinished = currentTaskCancellable ? null : currentTask;
+        cancelCurrentTask();
+        tickScheduler.stop();
+        frameTimer.stop();
+        statusTimer.stop();
+        latencyProbe.stop();
+        alertSubscription.close();
+        
+        setActionsEnabled(false);
+        cancelButton.setEnabled(false);
+        statusLabel.setText("Saving portfolio...");
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(true);
+        new CloseWorker(unfinished, next).execute();
+    }
+    
+    /**
+     * Writes the final snapshot; a large book takes a while, so never on the EDT
+     */
+    private class CloseWorker extends SwingWorker<Void, Void> {
+        private final SwingWorker<?, ?> unfinished;
+        private final Runnable next;
+        
+        CloseWorker(SwingWorker<?, ?> unfinished, Runnable next) {
+            this.unfinished = unfinished;
+            this.next = next;
+        }
+        
+        @Override
+        protected Void doInBackground() throws IOException, InterruptedException {
+            if (unfinished != null) {
+                try {
+                    unfinished.get();
+                } catch (ExecutionException e) {
+                    // Already reported by that task
+                }
+            }
+            HistoryTierManager tiers = historyTiers;
+            if (tiers != null) {
+                tiers.close();
+            }
+            try {
+                portfolioStore.close();
+            } finally {
+                TickLog ticks = tickLog;
+                if (ticks != null) {
+                    ticks.close(); // Detached by the store, which no longer appends to it
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        protected void done() {
+            try {
+                get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                JOptionPane.showMessageDialog(MainFrame.this, "Could not save the portfolio: " + e.getCause().getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            }
             dispose();
-            new LoginFrame().setVisible(true);
+            next.run();
+        }
+    }
+    
+    /**
+     * Restores the saved portfolio, or on first run adds the sample stocks,
+     * showing each one as soon as it is ready
+     */
+    private class LoadWorker extends SwingWorker<Void, Stock> {
+        private final String[][] samples = {
+            {"Tata Motors", "TATAMOTORS"},
+            {"Reliance Industries", "RELIANCE"},
+            {"Infosys", "INFY"}
+        };
+        
+        @Override
+        protected Void doInBackground() throws IOException {
+            // Ticks since the last snapshot are replayed from the tick log, which keeps them durable
+            tickLog = new TickLog(portfolioStore.getDirectory().resolve("ticks"),
+                                  new TickLog.Options().recordsPerSegment(TICK_LOG_SEGMENT_RECORDS));
+            boolean restored = portfolioStore.open(stockService, tickLog);
+            portfolioStore.startPeriodicSnapshots(SNAPSHOT_INTERVAL_MILLIS);
+            
+            // Cold histories beyond the budget (-Dstockmanager.historyHeapMB) spill to disk, and raw
+            // ticks older than -Dstockmanager.rawRetentionDays (0 keeps them) survive only as bars
+            long budget = Long.getLong("stockmanager.historyHeapMB", DEFAULT_HISTORY_HEAP_MB) << 20;
+            long retention = TimeUnit.DAYS.toMillis(Long.getLong("stockmanager.rawRetentionDays", 0));
+            historyTiers = new HistoryTierManager(stockService, portfolioStore.getDirectory().resolve("spill"),
+                                                  new HistoryTierManager.Options().heapBudgetBytes(budget)
+                                                                                  .rawRetentionMillis(retention));
+            historyTiers.start();
+            if (restored) {
+                setProgress(100);
+                return null;
+            }
+            
+            for (int i = 0; i < samples.length && !isCancelled(); i++) {
+                publish(stockService.addStock(samples[i][0], samples[i][1]));
+                setProgress(100 * (i + 1) / samples.length);
+            }
+            portfolioStore.snapshotAsync(); // Next start restores the samples from a snapshot, not their add records
+            return null;
+        }
+        
+        @Override
+        protected void process(List<Stock> added) {
+            updateTable();
+        }
+        
+        @Override
+        protected void done() {
+            updateTable();
+            try {
+                get();
+            } catch (CancellationException e) {
+                // Cancelled from the status bar
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                JOptionPane.showMessageDialog(MainFrame.this, "Could not restore the saved portfolio: " + e.getCause().getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Adds a stock and its thresholds; each is forced to the mutation log
+     * before it returns, so the disk waits happen here rather than on the EDT
+     */
+    private class AddStockWorker extends SwingWorker<Stock, Void> {
+        private final String name;
+        private final String symbol;
+        private final boolean hasThresholds;
+        private final double buyThreshold;
+        private final double sellThreshold;
+        
+        AddStockWorker(String name, String symbol, boolean hasThresholds, double buyThreshold, double sellThreshold) {
+            this.name = name;
+            this.symbol = symbol;
+            this.hasThresholds = hasThresholds;
+            this.buyThreshold = buyThreshold;
+            this.sellThreshold = sellThreshold;
+        }
+        
+        @Override
+        protected Stock doInBackground() {
+            Stock stock = stockService.addStock(name, symbol);
+            if (hasThresholds) {
+                stockService.setThresholds(stock, buyThreshold, sellThreshold);
+            }
+            return stock;
+        }
+        
+        @Override
+        protected void done() {
+            try {
+                get();
+                
+                // Clear fields
+                stockNameField.setText("");
+                stockSymbolField.setText("");
+                buyThresholdField.setText("");
+                sellThresholdField.setText("");
+                
+                updateTable();
+                JOptionPane.showMessageDialog(MainFrame.this, "Stock added successfully!", 
+                                            "Success", JOptionPane.INFORMATION_MESSAGE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                updateTable(); // The stock may be in even if its thresholds failed to log
+                JOptionPane.showMessageDialog(MainFrame.this, "Error adding stock: " + e.getCause().getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Removes a stock, waiting for the mutation log off the EDT
+     */
+    private class RemoveStockWorker extends SwingWorker<Boolean, Void> {
+        private final String name;
+        
+        RemoveStockWorker(String name) {
+            this.name = name;
+        }
+        
+        @Override
+        protected Boolean doInBackground() {
+            return stockService.removeStock(name);
+        }
+        
+        @Override
+        protected void done() {
+            updateTable();
+            try {
+                get();
+                JOptionPane.showMessageDialog(MainFrame.this, "Stock removed successfully!", 
+                                            "Success", JOptionPane.INFORMATION_MESSAGE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                JOptionPane.showMessageDialog(MainFrame.this, "Error removing stock: " + e.getCause().getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Assigns new random NAVs and repaints the updated rows in batches
+     */
+    private class RefreshWorker extends SwingWorker<Integer, Stock> {
+        private final List<Stock> stocks;
+        
+        RefreshWorker(List<Stock> stocks) {
+            this.stocks = stocks;
+        }
+        
+        @Override
+        protected Integer doInBackground() {
+            int total = stocks.size();
+            int done = 0;
+            for (Stock stock : stocks) {
+                if (isCancelled()) {
+                    break;
+                }
+                stock.setCurrentNAV(stockService.generateRandomNAV());
+                publish(stock);
+                if (++done % PROGRESS_BATCH == 0) {
+                    setProgress(100 * done / total);
+                }
+            }
+            return done;
+        }
+        
+        @Override
+        protected void process(List<Stock> updated) {
+            // Everything published since the last EDT pass arrives as one batch
+            tableModel.stocksUpdated(updated);
+        }
+        
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                JOptionPane.showMessageDialog(MainFrame.this, "NAV values refreshed!", 
+                                            "Success", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
+    
+    /**
+     * Waits for the inference backend without holding up the EDT
+     */
+    private class PredictionWorker extends SwingWorker<String, Void> {
+        private final Stock stock;
+        
+        PredictionWorker(Stock stock) {
+            this.stock = stock;
+        }
+        
+        @Override
+        protected String doInBackground() {
+            return PredictionFormatter.format(aiService.predictNAV(stock));
+        }
+        
+        @Override
+        protected void done() {
+            try {
+                String prediction = get();
+                JOptionPane.showMessageDialog(MainFrame.this, 
+                                            "AI Prediction for " + stock.getName() + ":\n\n" + prediction, 
+                                            "AI Prediction", 
+                                            JOptionPane.INFORMATION_MESSAGE);
+            } catch (CancellationException e) {
+                // Cancelled from the status bar
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                JOptionPane.showMessageDialog(MainFrame.this, "AI prediction failed: " + e.getCause().getMessage(), 
+                                            "Error", JOptionPane.ERROR_MESSAGE);
+            }
         }
     }
 }
@@ -0,0 +1,78 @@
+package ui;
+
+import service.PredictionResult;
+
+/**
+ * Turns structured AI predictions into the text shown in the UI
+ */
+public final class PredictionFormatter {
+    
+    private PredictionFormatter() {
+    }
+    
+    /**
+     * Multi-line report used by the AI Prediction dialog
+     */
+    public static String format(PredictionResult result) {
+        StringBuilder prediction = new StringBuilder();
+        prediction.append("📈 Trend Analysis: ").append(describe(result.getTrend())).append("\n\n");
+        prediction.append("🔮 Predicted NAV (Next Period): ₹").append(String.format("%.2f", result.getPredictedNAV())).append("\n\n");
+        prediction.append("📊 Confidence Level: ").append(result.getConfidence()).append("%\n\n");
+        prediction.append("🌍 Key Factor: Based on ").append(result.getKeyFactor()).append("\n\n");
+        prediction.append("💡 AI Recommendation: ").append(describeRecommendation(result)).append("\n\n");
+        prediction.append("⚠️ Risk Assessment: ").append(describe(result.getRiskBand()));
+        return prediction.toString();
+    }
+    
+    public static String describe(PredictionResult.Trend trend) {
+        switch (trend) {
+            case STRONG_UP: return "Strong upward trend (+⬆️)";
+            case MILD_UP: return "Mild upward trend (+⬆️)";
+            case STRONG_DOWN: return "Strong downward trend (-⬇️)";
+            case MILD_DOWN: return "Mild downward trend (-⬇️)";
+            case SIDEWAYS: return "Sideways/consolidation (↔️)";
+            default: return "Insufficient data for trend analysis";
+        }
+    }
+    
+    public static String describe(PredictionResult.RiskBand risk) {
+        switch (risk) {
+            case LOW: return "🟢 LOW RISK - Stable price movement";
+            case MODERATE: return "🟡 MODERATE RISK - Normal market fluctuation";
+            case HIGH: return "🟠 HIGH RISK - Significant volatility";
+            default: return "🔴 VERY HIGH RISK - Extreme volatility";
+        }
+    }
+    
+    private static String describeRecommendation(PredictionResult result) {
+        double change = result.getExpectedChangePercent();
+        StringBuilder rec = new StringBuilder();
+        
+        switch (result.getSignal()) {
+            case STRONG_BUY:
+                rec.append("🟢 STRONG BUY - Expected growth of ").append(String.format("%.1f%%", change));
+                break;
+            case BUY:
+                rec.append("🟢 BUY - Moderate growth expected (").append(String.format("%.1f%%", change)).append(")");
+                break;
+            case SELL:
+                rec.append("🔴 SELL - Expected decline of ").append(String.format("%.1f%%", Math.abs(change)));
+                break;
+            case WEAK_SELL:
+                rec.append("🟡 WEAK SELL - Minor decline expected (").append(String.format("%.1f%%", Math.abs(change))).append(")");
+                break;
+            default:
+                rec.append("🟡 HOLD - Sideways movement expected");
+        }
+        
+        // Consider user thresholds
+        if (result.isBuyThresholdReachable()) {
+            rec.append("\n   📉 Note: Predicted NAV may reach your buy threshold!");
+        }
+        if (result.isSellThresholdReachable()) {
+            rec.append("\n   📈 Note: Predicted NAV may reach your sell threshold!");
+        }
+        
+        return rec.toString();
+    }
+}
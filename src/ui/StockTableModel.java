@@ -0,0 +1,122 @@
+package ui;
+
+import model.Stock;
+import service.StockService;
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Table model that reads stocks straight from StockService by row index
+ * Rows map to instrument ids; the mapping is only rebuilt when stocks are
+ * added or removed. NAV and threshold changes fire row updates for just
+ * the affected rows, and cells are formatted lazily as they are rendered.
+ */
+public class StockTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"Stock Name", "Symbol", "Current NAV", "Buy Threshold", 
+                                                  "Sell Threshold", "Recommendation", "AI Prediction"};
+    
+    private final StockService stockService;
+    private int[] rowToId = new int[0];
+    private int[] idToRow = new int[0];
+    
+    public StockTableModel(StockService stockService) {
+        this.stockService = stockService;
+    }
+    
+    /**
+     * Rebuild the row mapping after stocks were added or removed
+     */
+    public void reload() {
+        int capacity = stockService.getIdCapacity();
+        int[] rows = new int[stockService.getStockCount()];
+        int[] reverse = new int[capacity];
+        Arrays.fill(reverse, -1);
+        
+        int row = 0;
+        for (int id = 0; id < capacity && row < rows.length; id++) {
+            if (stockService.getStock(id) != null) {
+                rows[row] = id;
+                reverse[id] = row++;
+            }
+        }
+        rowToId = row == rows.length ? rows : Arrays.copyOf(rows, row);
+        idToRow = reverse;
+        fireTableDataChanged();
+    }
+    
+    /**
+     * Repaint the rows of the given stocks, merging adjacent rows into ranges
+     */
+    public void stocksUpdated(Collection<Stock> stocks) {
+        int[] rows = new int[stocks.size()];
+        int count = 0;
+        for (Stock stock : stocks) {
+            int row = rowOf(stock);
+            if (row >= 0) {
+                rows[count++] = row;
+            }
+        }
+        Arrays.sort(rows, 0, count);
+        
+        int i = 0;
+        while (i < count) {
+            int first = rows[i];
+            int last = first;
+            while (++i < count && rows[i] <= last + 1) {
+                last = rows[i];
+            }
+            fireTableRowsUpdated(first, last);
+        }
+    }
+    
+    /**
+     * Stock shown in the given row, or null if it has been removed since
+     */
+    public Stock getStockAt(int row) {
+        return stockService.getStock(rowToId[row]);
+    }
+    
+    private int rowOf(Stock stock) {
+        int id = stock.getId();
+        return id >= 0 && id < idToRow.length ? idToRow[id] : -1;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rowToId.length;
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+    
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table read-only
+    }
+    
+    @Override
+    public Object getValueAt(int row, int column) {
+        Stock stock = getStockAt(row);
+        if (stock == null) {
+            return "";
+        }
+        
+        switch (column) {
+            case 0: return stock.getName();
+            case 1: return stock.getSymbol();
+            case 2: return String.format("₹%.2f", stock.getCurrentNAV());
+            case 3: return stock.getBuyThreshold() > 0 ? String.format("₹%.2f", stock.getBuyThreshold()) : "Not Set";
+            case 4: return stock.getSellThreshold() > 0 ? String.format("₹%.2f", stock.getSellThreshold()) : "Not Set";
+            case 5: return stock.getRecommendation();
+            default: return "Click Predict";
+        }
+    }
+}